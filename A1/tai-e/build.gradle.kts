@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.6.8"
 }
 
 repositories {
@@ -25,6 +26,16 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+// Benchmarks of the data-flow solvers and facts in src/jmh,
+// run by "gradlew jmh", e.g., "gradlew jmh -Pjmh.includes=SolverBenchmark"
+jmh {
+    jmhVersion.set("1.36")
+    benchmarkMode.add("thrpt")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    (project.findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
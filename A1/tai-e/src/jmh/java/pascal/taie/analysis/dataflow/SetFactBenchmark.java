@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+
+/**
+ * Benchmarks the operations of {@link SetFact} and {@link BitSetFact}
+ * used by the solvers, on facts holding every other variable of a
+ * synthetic IR.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SetFactBenchmark {
+
+    @Param({"16", "128", "1024"})
+    private int vars;
+
+    @Param({"false", "true"})
+    private boolean bitSet;
+
+    private AbstractSetFact<Var> even;
+
+    private AbstractSetFact<Var> odd;
+
+    private Var var;
+
+    @Setup
+    public void setup() {
+        IR ir = SyntheticIR.build(vars * 8, 0);
+        List<Var> universe = ir.getVars();
+        even = newFact(universe);
+        odd = newFact(universe);
+        for (Var v : universe) {
+            (v.getIndex() % 2 == 0 ? even : odd).add(v);
+        }
+        var = universe.get(universe.size() / 2);
+    }
+
+    private AbstractSetFact<Var> newFact(List<Var> universe) {
+        return bitSet ? new BitSetFact<>(universe) : new SetFact<>();
+    }
+
+    @Benchmark
+    public AbstractSetFact<Var> copy() {
+        return even.copy();
+    }
+
+    @Benchmark
+    public AbstractSetFact<Var> union() {
+        AbstractSetFact<Var> fact = even.copy();
+        fact.union(odd);
+        return fact;
+    }
+
+    @Benchmark
+    public AbstractSetFact<Var> intersect() {
+        AbstractSetFact<Var> fact = even.copy();
+        fact.intersect(odd);
+        return fact;
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return even.equals(even.copy());
+    }
+
+    @Benchmark
+    public boolean addRemove() {
+        AbstractSetFact<Var> fact = even.copy();
+        return fact.add(var) & fact.remove(var);
+    }
+}
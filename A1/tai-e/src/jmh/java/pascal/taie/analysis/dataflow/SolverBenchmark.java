@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Map;
+
+/**
+ * Benchmarks {@link pascal.taie.analysis.dataflow.solver.IterativeSolver}
+ * by solving live variable analysis on synthetic CFGs.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SolverBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"0", "2", "4"})
+    private int loopDepth;
+
+    /**
+     * Whether to use {@link pascal.taie.analysis.dataflow.fact.BitSetFact}.
+     */
+    @Param({"false", "true"})
+    private boolean bitSet;
+
+    /**
+     * Whether to solve in weak topological order.
+     */
+    @Param({"false", "true"})
+    private boolean wto;
+
+    private IR ir;
+
+    private LiveVariableAnalysis analysis;
+
+    @Setup
+    public void setup() {
+        ir = SyntheticIR.build(size, loopDepth);
+        analysis = new LiveVariableAnalysis(SyntheticIR.config(
+                LiveVariableAnalysis.ID, Map.of("bit-set", bitSet, "wto", wto)));
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, AbstractSetFact<Var>> liveVariables() {
+        return analysis.analyze(ir);
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.util.collection.Pair;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reader of analysis results in binary format, which are dumped by
+ * {@link ResultProcessor} with option {@code format: binary}.
+ * <p>
+ * The file consists of:
+ * <ul>
+ *     <li>a header: magic number and version (two ints);</li>
+ *     <li>the results, one for each method and analysis;</li>
+ *     <li>the method table: number of entries, then for each entry,
+ *     the method signature, the analysis ID, and the offset (long)
+ *     and the length (int) of the result;</li>
+ *     <li>the offset of the method table (long).</li>
+ * </ul>
+ * A result of statements (i.e., {@link StmtResult}) consists of the
+ * names of the variables of the method, the number of statements, the
+ * offsets of the facts of the statements and then the facts, where
+ * a set of variables is encoded as the indexes of the variables.
+ * Other results are encoded as strings. All strings are encoded as
+ * the number of bytes followed by the bytes in UTF-8.
+ * <p>
+ * The reader maps the file once when it is opened, in chunks of at most
+ * 2 GiB (the limit of a mapped buffer) that never split a result, and only
+ * parses the method table. A result is a slice of its chunk, and the fact
+ * of a statement is located via the offsets and decoded without parsing
+ * the other facts.
+ */
+public class BinaryResultReader implements AutoCloseable {
+
+    static final int MAGIC = 0x54414952;
+
+    static final int VERSION = 1;
+
+    static final byte RESULT_STMT = 0;
+
+    static final byte RESULT_SET = 1;
+
+    static final byte RESULT_TEXT = 2;
+
+    static final byte FACT_NULL = 0;
+
+    static final byte FACT_VAR_SET = 1;
+
+    static final byte FACT_TEXT = 2;
+
+    /**
+     * Maximum size of a mapped chunk of the file.
+     */
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+
+    /**
+     * Mapped chunks of the results in the file.
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * Locations of the results in the chunks, keyed by the method
+     * signatures and the analysis IDs.
+     */
+    private final Map<Pair<String, String>, Location> table;
+
+    private final Map<Pair<String, String>, Result> results = new ConcurrentHashMap<>();
+
+    /**
+     * Location of a result, i.e., the index of the chunk containing it,
+     * and its position and length in the chunk.
+     */
+    private record Location(int chunk, int position, int length) {
+    }
+
+    private BinaryResultReader(FileChannel channel, MappedByteBuffer[] chunks,
+                               Map<Pair<String, String>, Location> table) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.table = table;
+    }
+
+    /**
+     * Opens the given file and reads its method table.
+     */
+    public static BinaryResultReader open(Path path) throws IOException {
+        return open(path, MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the given file, and maps its results in chunks of at most
+     * given size, unless a single result is larger.
+     */
+    static BinaryResultReader open(Path path, long maxChunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(8);
+            channel.read(header, 0);
+            if (size < 16 || header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a binary result file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported version " + header.getInt(4)
+                        + " of " + path);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            channel.read(trailer, size - 8);
+            long tableOffset = trailer.getLong(0);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    tableOffset, size - 8 - tableOffset);
+            int count = buffer.getInt();
+            // the results are written in the order of the method table,
+            // thus a chunk ends before the first result exceeding it
+            Map<Pair<String, String>, Location> table = new LinkedHashMap<>();
+            List<MappedByteBuffer> chunks = new ArrayList<>();
+            long chunkStart = 8;
+            long chunkEnd = chunkStart;
+            for (int i = 0; i < count; ++i) {
+                String method = getString(buffer);
+                String analysis = getString(buffer);
+                long offset = buffer.getLong();
+                int length = buffer.getInt();
+                if (offset + length - chunkStart > maxChunkSize
+                        && chunkEnd > chunkStart) {
+                    chunks.add(channel.map(FileChannel.MapMode.READ_ONLY,
+                            chunkStart, chunkEnd - chunkStart));
+                    chunkStart = offset;
+                }
+                chunkEnd = offset + length;
+                table.put(new Pair<>(method, analysis), new Location(
+                        chunks.size(), (int) (offset - chunkStart), length));
+            }
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY,
+                    chunkStart, chunkEnd - chunkStart));
+            return new BinaryResultReader(channel,
+                    chunks.toArray(new MappedByteBuffer[0]), table);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the (method signature, analysis ID) pairs of the results
+     * in this file, in the order they were dumped.
+     */
+    public List<Pair<String, String>> getKeys() {
+        return List.copyOf(table.keySet());
+    }
+
+    /**
+     * @return the number of statements in the result of given method
+     * and analysis, or -1 if the result is not a result of statements.
+     */
+    public int getStmtCount(String method, String analysis) {
+        Result result = getResult(method, analysis);
+        return result.kind == RESULT_STMT ? result.stmtCount : -1;
+    }
+
+    /**
+     * @return string representation of the fact of the statement with
+     * given index in the result of given method and analysis. The variables
+     * in a set of variables are sorted by their names.
+     */
+    public String getFact(String method, String analysis, int stmtIndex) {
+        Result result = getResult(method, analysis);
+        if (result.kind != RESULT_STMT) {
+            throw new IllegalArgumentException(String.format(
+                    "Result of %s for %s is not a result of statements",
+                    analysis, method));
+        }
+        if (stmtIndex < 0 || stmtIndex >= result.stmtCount) {
+            throw new IndexOutOfBoundsException(stmtIndex);
+        }
+        ByteBuffer buffer = result.buffer.duplicate();
+        buffer.position(result.factsStart +
+                buffer.getInt(result.offsetsStart + 4 * stmtIndex));
+        return switch (buffer.get()) {
+            case FACT_NULL -> "null";
+            case FACT_VAR_SET -> {
+                int size = buffer.getInt();
+                List<String> names = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    names.add(result.varNames[buffer.getInt()]);
+                }
+                Collections.sort(names);
+                StringJoiner joiner = new StringJoiner(", ", "[", "]");
+                names.forEach(joiner::add);
+                yield joiner.toString();
+            }
+            case FACT_TEXT -> getString(buffer);
+            default -> throw new IllegalStateException("Malformed fact of "
+                    + method + " at " + stmtIndex);
+        };
+    }
+
+    /**
+     * @return the elements of a set result or the string of other result
+     * (except results of statements) of given method and analysis.
+     */
+    public List<String> getLines(String method, String analysis) {
+        Result result = getResult(method, analysis);
+        ByteBuffer buffer = result.buffer.duplicate();
+        buffer.position(1);
+        return switch (result.kind) {
+            case RESULT_SET -> {
+                int size = buffer.getInt();
+                List<String> lines = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    lines.add(getString(buffer));
+                }
+                yield lines;
+            }
+            case RESULT_TEXT -> List.of(getString(buffer));
+            default -> throw new IllegalArgumentException(String.format(
+                    "Result of %s for %s is a result of statements",
+                    analysis, method));
+        };
+    }
+
+    private Result getResult(String method, String analysis) {
+        Pair<String, String> key = new Pair<>(method, analysis);
+        Location location = table.get(key);
+        if (location == null) {
+            throw new IllegalArgumentException(String.format(
+                    "No result of %s for %s", analysis, method));
+        }
+        return results.computeIfAbsent(key, k -> new Result(
+                chunks[location.chunk()].slice(location.position(), location.length())));
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return the number of mapped chunks of the results.
+     */
+    int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * A mapped result, with the variable names and the positions of
+     * the facts decoded for results of statements.
+     */
+    private static class Result {
+
+        private final ByteBuffer buffer;
+
+        private final byte kind;
+
+        private String[] varNames;
+
+        private int stmtCount;
+
+        private int offsetsStart;
+
+        private int factsStart;
+
+        private Result(ByteBuffer buffer) {
+            this.buffer = buffer;
+            kind = buffer.get(0);
+            if (kind == RESULT_STMT) {
+                ByteBuffer b = buffer.duplicate();
+                b.position(1);
+                varNames = new String[b.getInt()];
+                for (int i = 0; i < varNames.length; ++i) {
+                    varNames[i] = getString(b);
+                }
+                stmtCount = b.getInt();
+                offsetsStart = b.position();
+                factsStart = offsetsStart + 4 * stmtCount;
+            }
+        }
+    }
+}
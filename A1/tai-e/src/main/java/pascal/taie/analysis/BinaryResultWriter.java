@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.analysis.BinaryResultReader.FACT_NULL;
+import static pascal.taie.analysis.BinaryResultReader.FACT_TEXT;
+import static pascal.taie.analysis.BinaryResultReader.FACT_VAR_SET;
+import static pascal.taie.analysis.BinaryResultReader.MAGIC;
+import static pascal.taie.analysis.BinaryResultReader.RESULT_SET;
+import static pascal.taie.analysis.BinaryResultReader.RESULT_STMT;
+import static pascal.taie.analysis.BinaryResultReader.RESULT_TEXT;
+import static pascal.taie.analysis.BinaryResultReader.VERSION;
+
+/**
+ * Writer of analysis results in the binary format described in
+ * {@link BinaryResultReader}.
+ * <p>
+ * The results are encoded by {@link #encode(IR, Object)}, which
+ * can be called concurrently, and then appended to the file by
+ * {@link #write(String, String, byte[])}, which records their offsets
+ * in the method table written by {@link #close()}.
+ */
+class BinaryResultWriter {
+
+    private final FileChannel channel;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Position of the end of the written data.
+     */
+    private long position;
+
+    private record Entry(String method, String analysis, long offset, int length) {
+    }
+
+    BinaryResultWriter(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(8);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(header);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open output file", e);
+        }
+    }
+
+    /**
+     * Encodes the result of an analysis for the method of given IR.
+     */
+    static byte[] encode(IR ir, Object result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            if (result instanceof StmtResult<?> stmtResult) {
+                encodeStmtResult(ir, stmtResult, out);
+            } else if (result instanceof Set<?> set) {
+                out.writeByte(RESULT_SET);
+                out.writeInt(set.size());
+                for (Object e : set) {
+                    writeString(out, e instanceof Stmt stmt ?
+                            IRPrinter.toString(stmt) : Objects.toString(e));
+                }
+            } else {
+                out.writeByte(RESULT_TEXT);
+                writeString(out, Objects.toString(result));
+            }
+        } catch (IOException e) {
+            // never happens as the bytes are written to memory
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the variable names and the facts of the statements,
+     * preceded by the offsets of the facts, so that the fact of
+     * any statement can be located directly.
+     */
+    private static void encodeStmtResult(
+            IR ir, StmtResult<?> result, DataOutputStream out) throws IOException {
+        out.writeByte(RESULT_STMT);
+        List<Var> vars = ir.getVars();
+        out.writeInt(vars.size());
+        for (Var var : vars) {
+            writeString(out, var.getName());
+        }
+        ByteArrayOutputStream factBytes = new ByteArrayOutputStream();
+        DataOutputStream facts = new DataOutputStream(factBytes);
+        int[] offsets = new int[ir.getStmts().size()];
+        for (Stmt stmt : ir) {
+            offsets[stmt.getIndex()] = facts.size();
+            encodeFact(ir, result.getResult(stmt), facts);
+        }
+        out.writeInt(offsets.length);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        factBytes.writeTo(out);
+    }
+
+    /**
+     * Encodes a fact, where sets of the variables of the method are
+     * encoded as the indexes of the variables.
+     */
+    private static void encodeFact(IR ir, Object fact, DataOutputStream out)
+            throws IOException {
+        if (fact == null) {
+            out.writeByte(FACT_NULL);
+        } else if (fact instanceof AbstractSetFact<?> setFact && setFact.stream()
+                .allMatch(e -> e instanceof Var var && isVarOf(ir, var))) {
+            int[] indexes = setFact.stream()
+                    .mapToInt(e -> ((Var) e).getIndex())
+                    .toArray();
+            out.writeByte(FACT_VAR_SET);
+            out.writeInt(indexes.length);
+            for (int index : indexes) {
+                out.writeInt(index);
+            }
+        } else {
+            out.writeByte(FACT_TEXT);
+            writeString(out, fact.toString());
+        }
+    }
+
+    private static boolean isVarOf(IR ir, Var var) {
+        return var.getIndex() < ir.getVars().size()
+                && ir.getVar(var.getIndex()) == var;
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Appends the encoded result of an analysis for given method.
+     */
+    void write(String method, String analysis, byte[] result) {
+        try {
+            entries.add(new Entry(method, analysis, position, result.length));
+            writeFully(ByteBuffer.wrap(result));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write output file", e);
+        }
+    }
+
+    /**
+     * Writes the method table and the trailer, and closes the file.
+     */
+    void close() {
+        try {
+            long tableOffset = position;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream table = new DataOutputStream(bytes);
+            table.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(table, entry.method());
+                writeString(table, entry.analysis());
+                table.writeLong(entry.offset());
+                table.writeInt(entry.length());
+            }
+            table.writeLong(tableOffset);
+            writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write output file", e);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
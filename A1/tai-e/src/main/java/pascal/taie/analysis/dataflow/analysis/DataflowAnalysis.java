@@ -51,6 +51,17 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * Analyses whose facts depend on the method being analyzed, e.g.,
+     * facts indexed by the variables of the method, can override this
+     * method. By default, it delegates to {@link #newInitialFact()}.
+     *
+     * @return new initial fact for non-boundary nodes of given CFG.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meet操作
      * Meets a fact into another (target) fact.
@@ -22,28 +22,70 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
-import javax.swing.text.html.Option;
-import java.util.List;
-import java.util.Optional;
+import java.nio.file.Path;
 
 /**
  * Implementation of classic live variable analysis.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, AbstractSetFact<Var>> {
 
     public static final String ID = "livevar";
 
+    /**
+     * Version of the analysis, which is stored with the cached results.
+     * It should be increased whenever the analysis computes different
+     * results, so that the results cached by earlier versions are discarded.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Whether represent the facts as bit vectors over the variable
+     * indices of the analyzed method, see {@link BitSetFact}.
+     */
+    private final boolean bitSet;
+
+    /**
+     * Cache of the results of previous runs, or null if option
+     * {@code cache-dir} is not given.
+     */
+    private final LiveVariableCache cache;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        bitSet = getOptions().getBooleanOrDefault("bit-set", false);
+        String cacheDir = getOptions().getString("cache-dir");
+        cache = cacheDir != null ? new LiveVariableCache(Path.of(cacheDir), VERSION) : null;
+    }
+
+    /**
+     * Loads the result of given IR from the cache if the IR is unchanged
+     * since it was cached, otherwise solves the IR and caches the result.
+     */
+    @Override
+    public DataflowResult<Stmt, AbstractSetFact<Var>> analyze(IR ir) {
+        if (cache == null) {
+            return super.analyze(ir);
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, AbstractSetFact<Var>> result = cache.load(cfg, () -> newFact(ir));
+        if (result == null) {
+            result = super.analyze(ir);
+            cache.store(cfg, result);
+        }
+        return result;
     }
 
     @Override
@@ -52,55 +94,58 @@ public class LiveVariableAnalysis extends
     }
 
     @Override
-    public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+    public AbstractSetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
         // IN[exit] = Ø，初始化为空，返回空的SetFact。
-        return new SetFact<>();
+        return newFact(cfg.getIR());
     }
 
     @Override
-    public SetFact<Var> newInitialFact() {
+    public AbstractSetFact<Var> newInitialFact() {
         // TODO - finish me
         // IN[B] = Ø，初始化为空，返回空的SetFact。
         return new SetFact<>();
     }
 
     @Override
-    public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
+    public AbstractSetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return newFact(cfg.getIR());
+    }
+
+    private AbstractSetFact<Var> newFact(IR ir) {
+        return bitSet ? new BitSetFact<>(ir.getVars()) : new SetFact<>();
+    }
+
+    @Override
+    public void meetInto(AbstractSetFact<Var> fact, AbstractSetFact<Var> target) {
         // TODO - finish me
         // 该函数无返回值，所以不能使用unionWith，因为该函数不会对原target作出修改。因此，使用union将fact并入target。
         target.union(fact);
     }
 
     @Override
-    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+    public boolean transferNode(Stmt stmt, AbstractSetFact<Var> in, AbstractSetFact<Var> out) {
         // TODO - finish me
+        // IN[B] = use_B ∪ (OUT[B] - def_B)
+        // 由于OUT[B]在迭代过程中只增不减，IN[B]也只增不减，因此可以直接在in上原地更新，
+        // 避免每条语句都拷贝一次out。
+        int oldSize = in.size();
+        // 获取stmt的重定义。若def_B已在旧的IN中，则它必然属于use_B，不需要移出。
+        Var def_B = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        boolean defLive = def_B != null && in.contains(def_B);
         // (OUT[B] - def_B)
-        // 拷贝一个out的副本out_B，因为不能修改out。
-        SetFact<Var> out_B = out.copy();
-        // 获取stmt的重定义，如果存在且为Var的实例，从out_B中移出。
-        Optional<LValue> def_B = stmt.getDef();
-        if (def_B.isPresent()) {
-            if (def_B.get() instanceof Var) {
-                out_B.remove((Var) def_B.get());
-            }
+        in.union(out);
+        if (def_B != null && !defLive) {
+            in.remove(def_B);
         }
-        // use_B
-        SetFact<Var> use_B = new SetFact<>();
-        // 获取stmt的使用变量，如果为Var的实例，加入use_B中。
+        // use_B ∪ (OUT[B] - def_B)
+        // 获取stmt的使用变量，如果为Var的实例，直接加入in中，避免为use_B创建新的fact。
         for (RValue use : stmt.getUses()) {
             if (use instanceof Var) {
-                use_B.add((Var) use);
+                in.add((Var) use);
             }
         }
-        // use_B ∪ (OUT[B] - def_B)
-        out_B.union(use_B);
-        // 如果out_B与in相同，说明IN未发生改变，返回false以终止算法的while循环。
-        if (out_B.equals(in)) {
-            return false;
-        }
-        // IN发生改变，将最终结果赋值给in，返回true，算法继续。
-        in.set(out_B);
-        return true;
+        // IN只增不减，大小不变说明IN未发生改变，返回false以终止算法的while循环。
+        return in.size() != oldSize;
     }
 }
@@ -0,0 +1,251 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * On-disk cache of the results of {@link LiveVariableAnalysis},
+ * which allows the analysis to skip the methods that are unchanged
+ * since the previous run.
+ * <p>
+ * The result of each method is stored in a separate file named by
+ * the hash of the method signature. The file starts with the version of
+ * the analysis and the hash of the IR and the CFG of the method, i.e.,
+ * the variables and their types, the statements, the exception entries
+ * and the CFG edges, so that the cached result is discarded once the
+ * analysis or any of them changes. The facts are
+ * stored as the indexes of the live variables of the nodes.
+ */
+class LiveVariableCache {
+
+    private static final Logger logger = LogManager.getLogger(LiveVariableCache.class);
+
+    /**
+     * Version of the file format, which should be increased
+     * whenever the format changes.
+     */
+    private static final int VERSION = 2;
+
+    private static final String SUFFIX = ".livevar";
+
+    private final Path dir;
+
+    /**
+     * Version of the analysis whose results are cached.
+     */
+    private final int analysisVersion;
+
+    LiveVariableCache(Path dir, int analysisVersion) {
+        this.dir = dir;
+        this.analysisVersion = analysisVersion;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create cache directory " + dir, e);
+        }
+    }
+
+    /**
+     * Loads the cached result of given CFG.
+     *
+     * @param factory creates empty facts of the loaded result
+     * @return the cached result, or null if the result is absent or stale.
+     */
+    DataflowResult<Stmt, AbstractSetFact<Var>> load(
+            CFG<Stmt> cfg, Supplier<AbstractSetFact<Var>> factory) {
+        IR ir = cfg.getIR();
+        Path file = fileOf(ir);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION || in.readInt() != analysisVersion) {
+                return null;
+            }
+            byte[] hash = new byte[in.readInt()];
+            in.readFully(hash);
+            if (!Arrays.equals(hash, hash(cfg))) {
+                return null;
+            }
+            Stmt[] nodes = nodesOf(cfg);
+            IndexedDataflowResult<Stmt, AbstractSetFact<Var>> result =
+                    new IndexedDataflowResult<>(nodes.length);
+            for (Stmt node : nodes) {
+                if (node != null) {
+                    result.setInFact(node, readFact(in, ir, factory));
+                    result.setOutFact(node, readFact(in, ir, factory));
+                }
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load cached result of {}: {}",
+                    ir.getMethod(), e.toString());
+            return null;
+        }
+    }
+
+    private static AbstractSetFact<Var> readFact(
+            DataInputStream in, IR ir, Supplier<AbstractSetFact<Var>> factory)
+            throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        AbstractSetFact<Var> fact = factory.get();
+        for (int i = 0; i < size; ++i) {
+            fact.add(ir.getVar(in.readInt()));
+        }
+        return fact;
+    }
+
+    /**
+     * Stores the result of given CFG. The result is written to a temporary
+     * file and then moved to the cache file, so that concurrent runs never
+     * see a partially written file.
+     */
+    void store(CFG<Stmt> cfg, DataflowResult<Stmt, AbstractSetFact<Var>> result) {
+        IR ir = cfg.getIR();
+        Path file = fileOf(ir);
+        try {
+            Path temp = Files.createTempFile(dir, null, SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(VERSION);
+                out.writeInt(analysisVersion);
+                byte[] hash = hash(cfg);
+                out.writeInt(hash.length);
+                out.write(hash);
+                Stmt[] nodes = nodesOf(cfg);
+                for (Stmt node : nodes) {
+                    if (node != null) {
+                        writeFact(out, result.getInFact(node));
+                        writeFact(out, result.getOutFact(node));
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache result of {}: {}",
+                    ir.getMethod(), e.toString());
+        }
+    }
+
+    private static void writeFact(DataOutputStream out, AbstractSetFact<Var> fact)
+            throws IOException {
+        if (fact == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(fact.size());
+            for (Var var : (Iterable<Var>) fact.stream()::iterator) {
+                out.writeInt(var.getIndex());
+            }
+        }
+    }
+
+    /**
+     * @return the nodes of given CFG indexed by their indexes.
+     */
+    private static Stmt[] nodesOf(CFG<Stmt> cfg) {
+        int capacity = 0;
+        for (Stmt node : cfg) {
+            capacity = Math.max(capacity, node.getIndex() + 1);
+        }
+        Stmt[] nodes = new Stmt[capacity];
+        cfg.forEach(node -> nodes[node.getIndex()] = node);
+        return nodes;
+    }
+
+    private Path fileOf(IR ir) {
+        String signature = ir.getMethod().getSignature();
+        return dir.resolve(HexFormat.of().formatHex(digest(signature)) + SUFFIX);
+    }
+
+    /**
+     * @return the hash of everything the result of given CFG depends on.
+     */
+    private static byte[] hash(CFG<Stmt> cfg) {
+        IR ir = cfg.getIR();
+        StringBuilder builder = new StringBuilder();
+        for (Var var : ir.getVars()) {
+            builder.append(var.getIndex()).append(' ')
+                    .append(var.getName()).append(':')
+                    .append(var.getType()).append('\n');
+        }
+        for (Stmt stmt : ir) {
+            builder.append(stmt.getIndex()).append(' ')
+                    .append(stmt).append('\n');
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            builder.append(entry.start().getIndex()).append('-')
+                    .append(entry.end().getIndex()).append(' ')
+                    .append(entry.handler().getIndex()).append(' ')
+                    .append(entry.catchType()).append('\n');
+        }
+        // the edges are sorted as the iteration order of the CFG
+        // may differ between runs
+        cfg.getNodes().stream()
+                .flatMap(node -> cfg.getOutEdgesOf(node).stream())
+                .map(edge -> edge.getSource().getIndex() + "->" +
+                        edge.getTarget().getIndex() + " " + edge.getKind())
+                .sorted()
+                .forEach(edge -> builder.append(edge).append('\n'));
+        return digest(builder.toString());
+    }
+
+    private static byte[] digest(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new AssertionError(e);
+        }
+    }
+}
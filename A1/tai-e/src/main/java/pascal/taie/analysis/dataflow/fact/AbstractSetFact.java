@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.Streams;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Base class of set-like data-flow facts, which does not prescribe how
+ * the elements are stored.
+ * <p>
+ * The operations between two facts are implemented by {@link #stream()}
+ * and {@link #contains(Object)} of the other fact, so that facts of
+ * different representations can be mixed. Subclasses override them with
+ * faster ones for facts of their own representation.
+ *
+ * @param <E> type of elements
+ * @see SetFact
+ * @see BitSetFact
+ */
+public abstract class AbstractSetFact<E> {
+
+    /**
+     * @return true if this set contains the specified element, otherwise false.
+     */
+    public abstract boolean contains(E e);
+
+    /**
+     * Adds an element to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public abstract boolean add(E e);
+
+    /**
+     * Removes an element from this fact.
+     *
+     * @return true if an element was removed as a result of the call, otherwise false.
+     */
+    public abstract boolean remove(E e);
+
+    /**
+     * Removes all the elements of this fact that satisfy the given predicate.
+     *
+     * @return true if any elements were removed as a result of the call,
+     * otherwise false.
+     */
+    public abstract boolean removeIf(Predicate<E> filter);
+
+    /**
+     * Unions other fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean union(AbstractSetFact<E> other) {
+        boolean changed = false;
+        for (E e : (Iterable<E>) other.stream()::iterator) {
+            changed |= add(e);
+        }
+        return changed;
+    }
+
+    /**
+     * @return a new fact which is the union of this and other facts.
+     */
+    public AbstractSetFact<E> unionWith(AbstractSetFact<E> other) {
+        AbstractSetFact<E> result = copy();
+        result.union(other);
+        return result;
+    }
+
+    /**
+     * Intersects this fact with other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean intersect(AbstractSetFact<E> other) {
+        return removeIf(e -> !other.contains(e));
+    }
+
+    /**
+     * @return a new fact which is the intersection of this and other facts.
+     */
+    public AbstractSetFact<E> intersectWith(AbstractSetFact<E> other) {
+        AbstractSetFact<E> result = copy();
+        result.intersect(other);
+        return result;
+    }
+
+    /**
+     * Sets the content of this set to the same as other set.
+     */
+    public void set(AbstractSetFact<E> other) {
+        clear();
+        union(other);
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public abstract AbstractSetFact<E> copy();
+
+    /**
+     * Clears all content in this fact.
+     */
+    public abstract void clear();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public abstract Stream<E> stream();
+
+    public abstract int size();
+
+    /**
+     * Two facts are equal if they contain the same elements,
+     * regardless of their representations.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AbstractSetFact<?> that)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        AbstractSetFact<E> other = (AbstractSetFact<E>) that;
+        return size() == other.size() && other.stream().allMatch(this::contains);
+    }
+
+    /**
+     * Consistent with {@link java.util.Set#hashCode()}, so that equal facts
+     * of different representations have the same hash code.
+     */
+    @Override
+    public int hashCode() {
+        return stream().mapToInt(Objects::hashCode).sum();
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts as bit vectors.
+ * <p>
+ * Elements are identified by {@link Indexable#getIndex()}, which must be
+ * dense within the given universe, i.e., for every element {@code e} of
+ * the universe, {@code universe.get(e.getIndex()) == e}. For example,
+ * the variables of a method, as returned by {@code IR.getVars()},
+ * satisfy this requirement.
+ * <p>
+ * All set operations between two bit-set facts are performed word by word,
+ * so that they neither allocate nor hash the elements. Operations with
+ * facts of other representations fall back to {@link AbstractSetFact}.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends AbstractSetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * All elements that may be contained in this fact,
+     * indexed by {@link Indexable#getIndex()}.
+     */
+    private final List<E> universe;
+
+    private long[] words;
+
+    public BitSetFact(List<E> universe) {
+        this(universe, new long[wordIndex(universe.size() - 1) + 1]);
+    }
+
+    private BitSetFact(List<E> universe, long[] words) {
+        this.universe = universe;
+        this.words = words;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (words.length < wordsRequired) {
+            words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+        }
+    }
+
+    @Override
+    public boolean contains(E e) {
+        int wordIndex = wordIndex(e.getIndex());
+        return wordIndex < words.length &&
+                (words[wordIndex] & (1L << e.getIndex())) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int wordIndex = wordIndex(e.getIndex());
+        ensureCapacity(wordIndex + 1);
+        long oldWord = words[wordIndex];
+        words[wordIndex] |= 1L << e.getIndex();
+        return words[wordIndex] != oldWord;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int wordIndex = wordIndex(e.getIndex());
+        if (wordIndex >= words.length) {
+            return false;
+        }
+        long oldWord = words[wordIndex];
+        words[wordIndex] &= ~(1L << e.getIndex());
+        return words[wordIndex] != oldWord;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            E e = universe.get(i);
+            if (filter.test(e)) {
+                changed |= remove(e);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(AbstractSetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            ensureCapacity(that.words.length);
+            boolean changed = false;
+            for (int i = 0; i < that.words.length; ++i) {
+                long oldWord = words[i];
+                words[i] |= that.words[i];
+                changed |= words[i] != oldWord;
+            }
+            return changed;
+        }
+        return super.union(other);
+    }
+
+    @Override
+    public BitSetFact<E> unionWith(AbstractSetFact<E> other) {
+        BitSetFact<E> result = copy();
+        result.union(other);
+        return result;
+    }
+
+    @Override
+    public boolean intersect(AbstractSetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            boolean changed = false;
+            for (int i = 0; i < words.length; ++i) {
+                long oldWord = words[i];
+                words[i] &= i < that.words.length ? that.words[i] : 0L;
+                changed |= words[i] != oldWord;
+            }
+            return changed;
+        }
+        return super.intersect(other);
+    }
+
+    @Override
+    public BitSetFact<E> intersectWith(AbstractSetFact<E> other) {
+        BitSetFact<E> result = copy();
+        result.intersect(other);
+        return result;
+    }
+
+    @Override
+    public void set(AbstractSetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            if (words.length < that.words.length) {
+                words = new long[that.words.length];
+            }
+            System.arraycopy(that.words, 0, words, 0, that.words.length);
+            Arrays.fill(words, that.words.length, words.length, 0L);
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(universe, words.clone());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return IntStream.iterate(nextSetBit(0), i -> i >= 0, i -> nextSetBit(i + 1))
+                .mapToObj(universe::get);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return the index of the first element in this fact whose index
+     * is greater than or equal to the given one, or -1 if there is no
+     * such element.
+     */
+    private int nextSetBit(int fromIndex) {
+        int u = wordIndex(fromIndex);
+        if (u >= words.length) {
+            return -1;
+        }
+        long word = words[u] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++u == words.length) {
+                return -1;
+            }
+            word = words[u];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that) {
+            long[] shorter = words.length <= that.words.length ? words : that.words;
+            long[] longer = shorter == words ? that.words : words;
+            for (int i = 0; i < shorter.length; ++i) {
+                if (shorter[i] != longer[i]) {
+                    return false;
+                }
+            }
+            for (int i = shorter.length; i < longer.length; ++i) {
+                if (longer[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+}
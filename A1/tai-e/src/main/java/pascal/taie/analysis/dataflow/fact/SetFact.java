@@ -36,7 +36,7 @@ import java.util.stream.Stream;
  *
  * @param <E> type of elements
  */
-public class SetFact<E> {
+public class SetFact<E> extends AbstractSetFact<E> {
 
     protected final Set<E> set;
 
@@ -48,120 +48,87 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
-    /**
-     * @return true if this set contains the specified element, otherwise false.
-     */
+    @Override
     public boolean contains(E e) {
         return set.contains(e);
     }
 
-    /**
-     * Adds an element to this fact.
-     *
-     * @return true if this fact changed as a result of the call, otherwise false.
-     */
+    @Override
     public boolean add(E e) {
         return set.add(e);
     }
 
-    /**
-     * Removes an element from this fact.
-     *
-     * @return true if an element was removed as a result of the call, otherwise false.
-     */
+    @Override
     public boolean remove(E e) {
         return set.remove(e);
     }
 
-    /**
-     * Removes all the elements of this fact that satisfy the given predicate.
-     *
-     * @return true if any elements were removed as a result of the call,
-     * otherwise false.
-     */
+    @Override
     public boolean removeIf(Predicate<E> filter) {
         return set.removeIf(filter);
     }
 
-    /**
-     * Unions other fact into this fact.
-     *
-     * @return true if this fact changed as a result of the call, otherwise false.
-     */
-    public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+    @Override
+    public boolean union(AbstractSetFact<E> other) {
+        if (other instanceof SetFact<E> that) {
+            return set.addAll(that.set);
+        }
+        return super.union(other);
     }
 
-    /**
-     * @return a new fact which is the union of this and other facts.
-     */
-    public SetFact<E> unionWith(SetFact<E> other) {
+    @Override
+    public SetFact<E> unionWith(AbstractSetFact<E> other) {
         SetFact<E> result = copy();
         result.union(other);
         return result;
     }
 
-    /**
-     * Intersects this fact with other fact.
-     *
-     * @return true if this fact changed as a result of the call, otherwise false.
-     */
-    public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+    @Override
+    public boolean intersect(AbstractSetFact<E> other) {
+        if (other instanceof SetFact<E> that) {
+            return set.retainAll(that.set);
+        }
+        return super.intersect(other);
     }
 
-    /**
-     * @return a new fact which is the intersection of this and other facts.
-     */
-    public SetFact<E> intersectWith(SetFact<E> other) {
+    @Override
+    public SetFact<E> intersectWith(AbstractSetFact<E> other) {
         SetFact<E> result = copy();
         result.intersect(other);
         return result;
     }
 
-    /**
-     * Sets the content of this set to the same as other set.
-     */
-    public void set(SetFact<E> other) {
-        clear();
-        union(other);
-    }
-
-    /**
-     * Creates and returns a copy of this fact.
-     */
+    @Override
     public SetFact<E> copy() {
         return new SetFact<>(this.set);
     }
 
-    /**
-     * Clears all content in this fact.
-     */
+    @Override
     public void clear() {
         set.clear();
     }
 
+    @Override
     public boolean isEmpty() {
         return set.isEmpty();
     }
 
+    @Override
     public Stream<E> stream() {
         return set.stream();
     }
 
+    @Override
     public int size() {
         return set.size();
     }
 
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof SetFact<?> that)) {
-            return false;
+        if (o instanceof SetFact<?> that) {
+            return set.equals(that.set);
         }
-        return set.equals(that.set);
+        return super.equals(o);
     }
 
     @Override
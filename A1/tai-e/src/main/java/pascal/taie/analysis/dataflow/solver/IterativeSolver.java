@@ -29,10 +29,19 @@ import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.ir.exp.Var;
 
+import java.util.List;
+
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
+    /**
+     * Whether to solve the CFG in its weak topological order,
+     * see {@link WeakTopologicalOrder}.
+     */
+    private final boolean wto;
+
+    public IterativeSolver(DataflowAnalysis<Node, Fact> analysis, boolean wto) {
         super(analysis);
+        this.wto = wto;
     }
 
     @Override
@@ -43,27 +52,60 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
+        if (wto) {
+            // 按照逆CFG的弱拓扑序求解，每个强连通分量在局部达到不动点后再处理后续节点。
+            solveElements(cfg, result,
+                    new WeakTopologicalOrder<>(cfg, false).getElements());
+            return;
+        }
         // 记录IN是否发生变化。
         boolean changed = true;
         while (changed) {
             // 每次循环开始，初始化changed为false。
             changed = false;
             for (Node node : cfg) {
-                // OUT[B] = union IN[B]
-                // 获取节点B的IN和OUT集合。
-                Fact out_B = result.getOutFact(node);
-                Fact in_B = result.getInFact(node);
-                // 对B的每一个后继节点，将其IN集合合并到OUT[B]中。
-                for (Node succ : cfg.getSuccsOf(node)) {
-                    analysis.meetInto(result.getInFact(succ), out_B);
-                }
-                // 如果转换函数的返回值为true，说明IN[B]发生了变化，将changed置为true。
-                if (analysis.transferNode(node, in_B, out_B)) {
+                // 如果IN[B]发生了变化，将changed置为true。
+                if (transferBackward(cfg, result, node)) {
                     changed = true;
                 }
-                // 更新节点B的OUT和IN集合。
-                result.setOutFact(node, out_B);
-                result.setInFact(node, in_B);
+            }
+        }
+    }
+
+    /**
+     * Computes OUT and IN facts of given node.
+     *
+     * @return true if the IN fact changed, otherwise false.
+     */
+    private boolean transferBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result, Node node) {
+        // OUT[B] = union IN[B]
+        // 获取节点B的IN和OUT集合。
+        Fact out_B = result.getOutFact(node);
+        Fact in_B = result.getInFact(node);
+        // 对B的每一个后继节点，将其IN集合合并到OUT[B]中。
+        for (Node succ : cfg.getSuccsOf(node)) {
+            analysis.meetInto(result.getInFact(succ), out_B);
+        }
+        // 如果转换函数的返回值为true，说明IN[B]发生了变化。
+        boolean changed = analysis.transferNode(node, in_B, out_B);
+        // 更新节点B的OUT和IN集合。
+        result.setOutFact(node, out_B);
+        result.setInFact(node, in_B);
+        return changed;
+    }
+
+    private void solveElements(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               List<WeakTopologicalOrder.Element<Node>> elements) {
+        for (WeakTopologicalOrder.Element<Node> element : elements) {
+            if (element.isComponent()) {
+                // 先处理分量的头节点，然后反复求解分量内的其余节点，
+                // 直到头节点的IN不再变化，此时整个分量达到局部不动点。
+                transferBackward(cfg, result, element.head());
+                do {
+                    solveElements(cfg, result, element.body());
+                } while (transferBackward(cfg, result, element.head()));
+            } else {
+                transferBackward(cfg, result, element.head());
             }
         }
     }
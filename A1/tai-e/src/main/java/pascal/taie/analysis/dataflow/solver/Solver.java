@@ -22,9 +22,12 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.Analysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -43,10 +46,14 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * If option {@code wto} of the analysis is set, the solver solves
+     * CFGs in their weak topological orders.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new IterativeSolver<>(analysis);
+        boolean wto = analysis instanceof Analysis a &&
+                a.getOptions().getBooleanOrDefault("wto", false);
+        return new IterativeSolver<>(analysis, wto);
     }
 
     /**
@@ -67,7 +74,7 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +83,25 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * For CFGs of {@link Stmt}s, creates a result which stores the facts
+     * in arrays indexed by the stmts, so that the solvers can access the
+     * facts without hashing.
+     *
+     * @return a new empty data-flow result for given CFG.
+     */
+    private DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            int capacity = 0;
+            for (Node node : cfg) {
+                capacity = Math.max(capacity, ((Stmt) node).getIndex() + 1);
+            }
+            return new IndexedDataflowResult<>(capacity);
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         throw new UnsupportedOperationException();
     }
@@ -90,9 +116,9 @@ public abstract class Solver<Node, Fact> {
         // 遍历cfg，为每一个节点初始化。
         for (Node node : cfg) {
             if (!cfg.isExit(node)) {
-                result.setInFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
                 // 由于analysis.meetInto是在函数内修改out，因此也要为每一个节点初始化out。
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
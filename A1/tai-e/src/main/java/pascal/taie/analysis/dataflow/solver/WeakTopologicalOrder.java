@@ -0,0 +1,238 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weak topological order (WTO) of the nodes of a CFG, computed by
+ * Bourdoncle's algorithm [1], which hierarchically decomposes the CFG
+ * into strongly connected components.
+ * <p>
+ * A WTO is a sequence of elements, each of which is either a node or
+ * a component. A component consists of a head node and a WTO of the
+ * remaining nodes of the component, which may contain nested components.
+ * Every edge goes forward in the WTO, except the edges to the heads of
+ * the components containing their sources, thus a solver can stabilize
+ * each component (starting from its head) before moving to the next
+ * element, instead of sweeping the whole CFG until nothing changes.
+ * <p>
+ * [1] F. Bourdoncle. Efficient chaotic iteration strategies with widenings.
+ * In Formal Methods in Programming and Their Applications, 1993.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class WeakTopologicalOrder<Node> {
+
+    /**
+     * An element of a WTO, i.e., a node, or a component if
+     * {@code body} is not null.
+     */
+    record Element<Node>(Node head, List<Element<Node>> body) {
+
+        boolean isComponent() {
+            return body != null;
+        }
+    }
+
+    private final CFG<Node> cfg;
+
+    private final boolean isForward;
+
+    /**
+     * Depth-first numbers of the visited nodes, where
+     * {@link Integer#MAX_VALUE} marks the nodes already placed in the WTO.
+     */
+    private final Map<Node, Integer> dfn;
+
+    private final Deque<Node> stack = new ArrayDeque<>();
+
+    private int num = 0;
+
+    private final List<Element<Node>> elements;
+
+    /**
+     * Computes the WTO of given CFG, following the edges of the CFG
+     * from the entry if {@code isForward} is true, otherwise following
+     * the reversed edges from the exit.
+     * <p>
+     * The nodes that cannot be reached from the entry (exit), e.g.,
+     * the nodes of infinite loops in backward analyses, are visited from
+     * themselves afterwards. As the partition is built in reverse order,
+     * these nodes are placed before the nodes they flow into, thus every
+     * edge still goes forward in the WTO, except the edges to the heads
+     * of the components.
+     */
+    WeakTopologicalOrder(CFG<Node> cfg, boolean isForward) {
+        this.cfg = cfg;
+        this.isForward = isForward;
+        this.dfn = Maps.newMap(cfg.getNumberOfNodes());
+        List<Element<Node>> partition = new ArrayList<>();
+        visit(isForward ? cfg.getEntry() : cfg.getExit(), partition);
+        for (Node node : cfg) {
+            if (dfnOf(node) == 0) {
+                visit(node, partition);
+            }
+        }
+        Collections.reverse(partition);
+        elements = partition;
+    }
+
+    /**
+     * @return the top-level elements of this WTO.
+     */
+    List<Element<Node>> getElements() {
+        return elements;
+    }
+
+    private Collection<Node> successors(Node node) {
+        return isForward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+    }
+
+    private int dfnOf(Node node) {
+        return dfn.getOrDefault(node, 0);
+    }
+
+    /**
+     * A frame of the depth-first search, which either visits a node,
+     * or builds the body of a component by visiting the successors
+     * of its head.
+     */
+    private final class Frame {
+
+        private final Node node;
+
+        private final Iterator<Node> succs;
+
+        /**
+         * The list where the elements induced by this frame are appended.
+         */
+        private final List<Element<Node>> partition;
+
+        /**
+         * Body of the component, or null if this frame visits a node.
+         */
+        private final List<Element<Node>> body;
+
+        /**
+         * The smallest depth-first number reached by this frame so far.
+         */
+        private int head;
+
+        private boolean loop;
+
+        /**
+         * Whether this frame is waiting for the result of a child frame.
+         */
+        private boolean waiting;
+
+        private Frame(Node node, List<Element<Node>> partition,
+                      List<Element<Node>> body, int head) {
+            this.node = node;
+            this.succs = successors(node).iterator();
+            this.partition = partition;
+            this.body = body;
+            this.head = head;
+        }
+
+        private void reach(int min) {
+            if (min <= head) {
+                head = min;
+                loop = true;
+            }
+        }
+    }
+
+    private Frame newVisitFrame(Node node, List<Element<Node>> partition) {
+        stack.push(node);
+        dfn.put(node, ++num);
+        return new Frame(node, partition, null, num);
+    }
+
+    /**
+     * Visits given node, and appends the elements it induces to the
+     * partition in reverse order. This is Bourdoncle's recursive visit,
+     * performed with an explicit stack of frames, so that deep CFGs
+     * do not overflow the call stack.
+     */
+    private void visit(Node root, List<Element<Node>> partition) {
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(newVisitFrame(root, partition));
+        // the smallest depth-first number reached by the last finished frame
+        int result = 0;
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.waiting) {
+                frame.waiting = false;
+                if (frame.body == null) {
+                    frame.reach(result);
+                }
+            }
+            if (frame.succs.hasNext()) {
+                Node succ = frame.succs.next();
+                if (dfnOf(succ) == 0) {
+                    frame.waiting = true;
+                    frames.push(newVisitFrame(succ,
+                            frame.body == null ? frame.partition : frame.body));
+                } else if (frame.body == null) {
+                    frame.reach(dfnOf(succ));
+                }
+                continue;
+            }
+            frames.pop();
+            result = frame.head;
+            if (frame.body != null) {
+                // the body of the component is complete
+                Collections.reverse(frame.body);
+                frame.partition.add(new Element<>(frame.node, frame.body));
+            } else if (frame.head == dfnOf(frame.node)) {
+                Node node = frame.node;
+                dfn.put(node, Integer.MAX_VALUE);
+                Node top = stack.pop();
+                if (frame.loop) {
+                    while (top != node) {
+                        dfn.put(top, 0);
+                        top = stack.pop();
+                    }
+                    // visit the nodes of the component again to build its body,
+                    // and hand over the result of this frame to the parent
+                    frames.push(new Frame(node, frame.partition,
+                            new ArrayList<>(), frame.head));
+                } else {
+                    frame.partition.add(new Element<>(node, null));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.util.collection.Pair;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BinaryResultReaderTest {
+
+    private static final String METHOD = "<C: int m()>";
+
+    private static final String LIVE_VARS = LiveVariableAnalysis.ID;
+
+    private static final String TEXT_FACTS = "text-facts";
+
+    private static final String STMTS = "stmts";
+
+    private static final String TEXT = "text";
+
+    /**
+     * IR of {@code x = 1; y = x + x; return y;}.
+     */
+    private static IR buildIR() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)),
+                new Return(y));
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, List.of(), Set.of(),
+                List.of(x, y), stmts, List.of());
+        ir.storeResult(CFGBuilder.ID, new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false)).analyze(ir));
+        return ir;
+    }
+
+    /**
+     * A result of statements whose facts are neither sets of variables
+     * nor all present.
+     */
+    private static StmtResult<String> textFacts() {
+        return new StmtResult<>() {
+            @Override
+            public boolean isRelevant(Stmt stmt) {
+                return true;
+            }
+
+            @Override
+            public String getResult(Stmt stmt) {
+                return stmt.getIndex() == 0 ? null : "fact " + stmt.getIndex();
+            }
+        };
+    }
+
+    /**
+     * Dumps the results of all kinds for the method of given IR,
+     * and stores the result of live variable analysis in the IR.
+     */
+    private static Path write(IR ir) throws IOException {
+        Path file = Files.createTempFile("results", ".bin");
+        BinaryResultWriter writer = new BinaryResultWriter(file);
+        DataflowResult<Stmt, AbstractSetFact<Var>> liveVars =
+                new LiveVariableAnalysis(new AnalysisConfig(LIVE_VARS)).analyze(ir);
+        ir.storeResult(LIVE_VARS, liveVars);
+        writer.write(METHOD, LIVE_VARS, BinaryResultWriter.encode(ir, liveVars));
+        writer.write(METHOD, TEXT_FACTS, BinaryResultWriter.encode(ir, textFacts()));
+        writer.write(METHOD, STMTS, BinaryResultWriter.encode(ir,
+                new LinkedHashSet<>(List.of(ir.getStmt(2), ir.getStmt(0)))));
+        writer.write(METHOD, TEXT, BinaryResultWriter.encode(ir, 42));
+        writer.close();
+        return file;
+    }
+
+    private static void checkResults(BinaryResultReader reader, IR ir) {
+        Assert.assertEquals(List.of(new Pair<>(METHOD, LIVE_VARS),
+                        new Pair<>(METHOD, TEXT_FACTS), new Pair<>(METHOD, STMTS),
+                        new Pair<>(METHOD, TEXT)),
+                reader.getKeys());
+        // RESULT_STMT with sets of variables
+        DataflowResult<Stmt, AbstractSetFact<Var>> liveVars = ir.getResult(LIVE_VARS);
+        Assert.assertEquals(3, reader.getStmtCount(METHOD, LIVE_VARS));
+        Assert.assertEquals("[x]", reader.getFact(METHOD, LIVE_VARS, 0));
+        Assert.assertEquals("[y]", reader.getFact(METHOD, LIVE_VARS, 1));
+        Assert.assertEquals("[]", reader.getFact(METHOD, LIVE_VARS, 2));
+        Assert.assertEquals(liveVars.getResult(ir.getStmt(0)).toString(),
+                reader.getFact(METHOD, LIVE_VARS, 0));
+        // RESULT_STMT with other facts
+        Assert.assertEquals(3, reader.getStmtCount(METHOD, TEXT_FACTS));
+        Assert.assertEquals("null", reader.getFact(METHOD, TEXT_FACTS, 0));
+        Assert.assertEquals("fact 2", reader.getFact(METHOD, TEXT_FACTS, 2));
+        // RESULT_SET
+        Assert.assertEquals(-1, reader.getStmtCount(METHOD, STMTS));
+        Assert.assertEquals(List.of(IRPrinter.toString(ir.getStmt(2)),
+                        IRPrinter.toString(ir.getStmt(0))),
+                reader.getLines(METHOD, STMTS));
+        // RESULT_TEXT
+        Assert.assertEquals(-1, reader.getStmtCount(METHOD, TEXT));
+        Assert.assertEquals(List.of("42"), reader.getLines(METHOD, TEXT));
+        // out-of-range statements and mismatched kinds
+        Assert.assertThrows(IndexOutOfBoundsException.class,
+                () -> reader.getFact(METHOD, LIVE_VARS, 3));
+        Assert.assertThrows(IndexOutOfBoundsException.class,
+                () -> reader.getFact(METHOD, LIVE_VARS, -1));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> reader.getFact(METHOD, TEXT, 0));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> reader.getLines(METHOD, LIVE_VARS));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> reader.getFact("<C: void n()>", LIVE_VARS, 0));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        IR ir = buildIR();
+        Path file = write(ir);
+        try (BinaryResultReader reader = BinaryResultReader.open(file)) {
+            Assert.assertEquals(1, reader.getChunkCount());
+            checkResults(reader, ir);
+        }
+    }
+
+    /**
+     * Results are sliced from the chunks containing them, which never
+     * split a result, even if a result is larger than a chunk.
+     */
+    @Test
+    public void testRoundTripInChunks() throws IOException {
+        IR ir = buildIR();
+        Path file = write(ir);
+        try (BinaryResultReader reader = BinaryResultReader.open(file, 1)) {
+            Assert.assertEquals(4, reader.getChunkCount());
+            checkResults(reader, ir);
+        }
+        try (BinaryResultReader reader = BinaryResultReader.open(file, 64)) {
+            Assert.assertTrue(reader.getChunkCount() > 1);
+            checkResults(reader, ir);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class ResultProcessorTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/livevar";
+
+    private static final String[] CASES = {
+            "Assign", "Branch", "BranchLoop", "Array", "Fibonacci", "Reference"
+    };
+
+    /**
+     * Runs live variable analysis on given test case, and processes
+     * its results by given options of {@link ResultProcessor}.
+     *
+     * @return the mismatches found by the result processor.
+     */
+    private static Set<String> process(String main, String options) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", LiveVariableAnalysis.ID + "=strongly:false",
+                "-a", String.format("%s=analyses:[%s];%s", ResultProcessor.ID,
+                LiveVariableAnalysis.ID, options)});
+        return World.get().getResult(ResultProcessor.ID);
+    }
+
+    private static Path getExpectedFile(String main) {
+        return Path.of(CLASS_PATH, main + "-" + LiveVariableAnalysis.ID + "-expected.txt");
+    }
+
+    /**
+     * @return the sections of given lines, each of which starts with
+     * its header line.
+     */
+    private static List<List<String>> split(List<String> lines) {
+        List<List<String>> sections = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("----------")) {
+                sections.add(new ArrayList<>());
+            }
+            if (!sections.isEmpty() && !line.isBlank()) {
+                sections.get(sections.size() - 1).add(line);
+            }
+        }
+        return sections;
+    }
+
+    private static Path write(List<List<String>> sections) throws IOException {
+        Path file = Files.createTempFile("livevar", ".txt");
+        Files.write(file, sections.stream().flatMap(List::stream).toList());
+        return file;
+    }
+
+    @Test
+    public void testStreamingCompare() {
+        for (String main : CASES) {
+            Set<String> mismatches = process(main,
+                    "action:compare;streaming:true;file:" + getExpectedFile(main));
+            Assert.assertTrue(String.join("\n", mismatches), mismatches.isEmpty());
+        }
+    }
+
+    /**
+     * The results listed in the reverse order of the methods are kept
+     * by the reader until they are requested.
+     */
+    @Test
+    public void testStreamingCompareOutOfOrder() throws IOException {
+        List<List<String>> sections = split(
+                Files.readAllLines(getExpectedFile("BranchLoop")));
+        Assert.assertEquals(3, sections.size());
+        Collections.reverse(sections);
+        Path reversed = write(sections);
+        Set<String> mismatches = process("BranchLoop",
+                "action:compare;streaming:true;file:" + reversed);
+        Assert.assertTrue(String.join("\n", mismatches), mismatches.isEmpty());
+        // drop the last line of the results of the method read first,
+        // which are pending until the method is requested
+        List<String> first = sections.get(0);
+        first.remove(first.size() - 1);
+        Path missing = write(sections);
+        Assert.assertFalse(process("BranchLoop",
+                "action:compare;streaming:true;file:" + missing).isEmpty());
+    }
+
+    @Test
+    public void testStreamingDump() throws IOException {
+        for (String main : CASES) {
+            Path dumped = Files.createTempFile("livevar", ".txt");
+            process(main, "action:dump;streaming:true;file:" + dumped);
+            Assert.assertEquals(
+                    split(Files.readAllLines(getExpectedFile(main))),
+                    split(Files.readAllLines(dumped)));
+        }
+    }
+}
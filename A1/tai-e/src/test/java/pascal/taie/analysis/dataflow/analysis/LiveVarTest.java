@@ -27,9 +27,17 @@ import pascal.taie.analysis.Tests;
 
 public class LiveVarTest {
 
+    private static final String[] CASES = {
+            "Assign", "Branch", "BranchLoop", "Array", "Fibonacci", "Reference"
+    };
+
     void testLV(String inputClass) {
+        testLV(inputClass, "strongly:false");
+    }
+
+    void testLV(String inputClass, String options) {
         Tests.test(inputClass, "src/test/resources/dataflow/livevar",
-                LiveVariableAnalysis.ID, "strongly:false");
+                LiveVariableAnalysis.ID, options);
     }
 
     @Test
@@ -61,4 +69,25 @@ public class LiveVarTest {
     public void Reference() {
         testLV("Reference");
     }
+
+    /**
+     * Results with bit-vector facts must be the same as the expected ones.
+     */
+    @Test
+    public void testBitSet() {
+        for (String inputClass : CASES) {
+            testLV(inputClass, "strongly:false;bit-set:true");
+        }
+    }
+
+    /**
+     * Results solved in weak topological order must be the same as
+     * the expected ones.
+     */
+    @Test
+    public void testWTO() {
+        for (String inputClass : CASES) {
+            testLV(inputClass, "strongly:false;wto:true");
+        }
+    }
 }
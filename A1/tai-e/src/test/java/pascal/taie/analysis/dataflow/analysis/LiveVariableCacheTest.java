@@ -0,0 +1,140 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LiveVariableCacheTest {
+
+    /**
+     * Analyzes test case Branch, which has two methods.
+     *
+     * @return the IRs of the methods of Branch, which hold their CFGs
+     * and the results of live variable analysis.
+     */
+    private static List<IR> analyze() {
+        Tests.test("Branch", "src/test/resources/dataflow/livevar",
+                LiveVariableAnalysis.ID, "strongly:false");
+        return World.get().getClassHierarchy().getClass("Branch")
+                .getDeclaredMethods()
+                .stream()
+                .map(method -> method.getIR())
+                .toList();
+    }
+
+    private static DataflowResult<Stmt, AbstractSetFact<Var>> load(
+            LiveVariableCache cache, IR ir) {
+        return cache.load(ir.getResult(CFGBuilder.ID), SetFact::new);
+    }
+
+    private static void store(LiveVariableCache cache, IR ir) {
+        cache.store(ir.getResult(CFGBuilder.ID), ir.getResult(LiveVariableAnalysis.ID));
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("livevar");
+        for (IR ir : analyze()) {
+            store(new LiveVariableCache(dir, LiveVariableAnalysis.VERSION), ir);
+            // load by another cache, as another run does
+            DataflowResult<Stmt, AbstractSetFact<Var>> loaded =
+                    load(new LiveVariableCache(dir, LiveVariableAnalysis.VERSION), ir);
+            Assert.assertNotNull(loaded);
+            DataflowResult<Stmt, AbstractSetFact<Var>> result =
+                    ir.getResult(LiveVariableAnalysis.ID);
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            for (Stmt node : cfg) {
+                Assert.assertEquals(result.getInFact(node), loaded.getInFact(node));
+                Assert.assertEquals(result.getOutFact(node), loaded.getOutFact(node));
+            }
+        }
+    }
+
+    @Test
+    public void testStaleHash() throws IOException {
+        List<IR> irs = analyze();
+        Path dir0 = Files.createTempDirectory("livevar");
+        Path dir1 = Files.createTempDirectory("livevar");
+        LiveVariableCache cache0 = new LiveVariableCache(dir0, LiveVariableAnalysis.VERSION);
+        LiveVariableCache cache1 = new LiveVariableCache(dir1, LiveVariableAnalysis.VERSION);
+        store(cache0, irs.get(0));
+        store(cache1, irs.get(1));
+        // replace the cached result of method 1 by the one of method 0,
+        // whose IR and CFG are different
+        Files.copy(list(dir0).get(0), list(dir1).get(0),
+                StandardCopyOption.REPLACE_EXISTING);
+        Assert.assertNull(load(cache1, irs.get(1)));
+    }
+
+    @Test
+    public void testStaleVersion() throws IOException {
+        IR ir = analyze().get(0);
+        Path dir = Files.createTempDirectory("livevar");
+        store(new LiveVariableCache(dir, LiveVariableAnalysis.VERSION), ir);
+        Assert.assertNull(load(
+                new LiveVariableCache(dir, LiveVariableAnalysis.VERSION + 1), ir));
+        Assert.assertNotNull(load(
+                new LiveVariableCache(dir, LiveVariableAnalysis.VERSION), ir));
+    }
+
+    /**
+     * The result is moved from a temporary file to the cache file, thus
+     * storing a result again replaces the cache file and leaves nothing else.
+     */
+    @Test
+    public void testMoveToCacheFile() throws IOException {
+        IR ir = analyze().get(0);
+        Path dir = Files.createTempDirectory("livevar");
+        LiveVariableCache cache = new LiveVariableCache(dir, LiveVariableAnalysis.VERSION);
+        store(cache, ir);
+        List<Path> files = list(dir);
+        store(cache, ir);
+        Assert.assertEquals(files, list(dir));
+        Assert.assertNotNull(load(cache, ir));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.AbstractSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class WeakTopologicalOrderTest {
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private Var newVar(String name) {
+        Var var = new Var(null, name, PrimitiveType.INT, vars.size());
+        vars.add(var);
+        return var;
+    }
+
+    /**
+     * Builds the CFG of given statements, whose jump targets have been set,
+     * over the variables created by {@link #newVar(String)}.
+     */
+    private CFG<Stmt> buildCFG(List<Var> params, List<Stmt> stmts) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, params, Set.of(),
+                vars, stmts, List.of());
+        CFG<Stmt> cfg = new CFGBuilder(new AnalysisConfig(CFGBuilder.ID,
+                "exception", "none", "dump", false)).analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return cfg;
+    }
+
+    private static DataflowResult<Stmt, AbstractSetFact<Var>> analyzeLiveVars(
+            CFG<Stmt> cfg, boolean wto) {
+        return new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "wto", wto)).analyze(cfg.getIR());
+    }
+
+    /**
+     * Checks that every node is placed once in the backward WTO of given
+     * CFG, and that every reversed edge goes forward in the WTO, except
+     * the edges to the heads of the components containing their sources.
+     *
+     * @return the maximum depth of the nested components.
+     */
+    private static int checkBackwardWTO(CFG<Stmt> cfg) {
+        List<WeakTopologicalOrder.Element<Stmt>> elements =
+                new WeakTopologicalOrder<>(cfg, false).getElements();
+        Map<Stmt, Integer> positions = new HashMap<>();
+        Map<Stmt, Set<Stmt>> components = new HashMap<>();
+        int depth = place(elements, positions, components, 0);
+        Assert.assertEquals(cfg.getNumberOfNodes(), positions.size());
+        for (Stmt node : cfg) {
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                boolean forward = positions.get(node) < positions.get(pred);
+                boolean toHead = components.containsKey(pred)
+                        && components.get(pred).contains(node);
+                Assert.assertTrue("Edge " + pred + " <- " + node +
+                        " goes backward in the WTO", forward || toHead);
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Numbers the nodes of given elements in order, and collects the
+     * nodes of the components by their heads.
+     *
+     * @return the maximum depth of the nested components in the elements.
+     */
+    private static int place(List<WeakTopologicalOrder.Element<Stmt>> elements,
+                             Map<Stmt, Integer> positions,
+                             Map<Stmt, Set<Stmt>> components, int depth) {
+        int maxDepth = depth;
+        for (WeakTopologicalOrder.Element<Stmt> element : elements) {
+            Assert.assertNull("Node " + element.head() + " is placed twice",
+                    positions.put(element.head(), positions.size()));
+            if (element.isComponent()) {
+                int start = positions.size();
+                maxDepth = Math.max(maxDepth,
+                        place(element.body(), positions, components, depth + 1));
+                Set<Stmt> nodes = new HashSet<>();
+                nodes.add(element.head());
+                positions.forEach((node, position) -> {
+                    if (position >= start) {
+                        nodes.add(node);
+                    }
+                });
+                components.put(element.head(), nodes);
+            }
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Nested loops, solved in the WTO, where the inner loop is a component
+     * nested in the component of the outer loop.
+     */
+    @Test
+    public void testNestedLoops() {
+        Var n = newVar("n");
+        Var one = newVar("one");
+        Var i = newVar("i");
+        Var j = newVar("j");
+        Var s = newVar("s");
+        If outer = new If(new ConditionExp(ConditionExp.Op.GE, i, n));
+        If inner = new If(new ConditionExp(ConditionExp.Op.GE, j, n));
+        Goto innerLatch = new Goto();
+        Goto outerLatch = new Goto();
+        Return ret = new Return(s);
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(one, IntLiteral.get(1)),                      // 0
+                new AssignLiteral(i, IntLiteral.get(0)),                        // 1
+                outer,                                                          // 2
+                new AssignLiteral(j, IntLiteral.get(0)),                        // 3
+                inner,                                                          // 4
+                new Binary(s, new ArithmeticExp(ArithmeticExp.Op.ADD, s, j)),   // 5
+                new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, j, one)), // 6
+                innerLatch,                                                     // 7
+                new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, one)), // 8
+                outerLatch,                                                     // 9
+                ret);                                                           // 10
+        outer.setTarget(ret);
+        inner.setTarget(stmts.get(8));
+        innerLatch.setTarget(inner);
+        outerLatch.setTarget(outer);
+        CFG<Stmt> cfg = buildCFG(List.of(n), stmts);
+        Assert.assertEquals(2, checkBackwardWTO(cfg));
+        DataflowResult<Stmt, AbstractSetFact<Var>> result = analyzeLiveVars(cfg, true);
+        DataflowResult<Stmt, AbstractSetFact<Var>> expected = analyzeLiveVars(cfg, false);
+        for (Stmt stmt : cfg) {
+            Assert.assertEquals(expected.getInFact(stmt), result.getInFact(stmt));
+            Assert.assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+        }
+        // s flows around both loops into the return
+        Assert.assertTrue(result.getOutFact(stmts.get(8)).contains(s));
+        Assert.assertTrue(result.getOutFact(stmts.get(1)).contains(s));
+        // j is defined before its uses in every iteration of the outer loop
+        Assert.assertFalse(result.getOutFact(stmts.get(1)).contains(j));
+    }
+
+    /**
+     * An infinite loop, which cannot reach the exit, and uses a variable
+     * defined before it.
+     */
+    @Test
+    public void testInfiniteLoop() {
+        Var p = newVar("p");
+        Var q = newVar("q");
+        Var x = newVar("x");
+        Var b = newVar("b");
+        If branch = new If(new ConditionExp(ConditionExp.Op.GE, p, q));
+        Goto latch = new Goto();
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),                        // 0
+                branch,                                                         // 1
+                new Return(q),                                                  // 2
+                new Binary(b, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)),   // 3
+                latch);                                                         // 4
+        branch.setTarget(stmts.get(3));
+        latch.setTarget(stmts.get(3));
+        CFG<Stmt> cfg = buildCFG(List.of(p, q), stmts);
+        Assert.assertEquals(1, checkBackwardWTO(cfg));
+        DataflowResult<Stmt, AbstractSetFact<Var>> result = analyzeLiveVars(cfg, true);
+        Assert.assertTrue(result.getOutFact(stmts.get(0)).contains(x));
+        Assert.assertTrue(result.getOutFact(stmts.get(1)).contains(x));
+        Assert.assertTrue(result.getOutFact(stmts.get(4)).contains(x));
+        Assert.assertFalse(result.getOutFact(stmts.get(3)).contains(b));
+    }
+}
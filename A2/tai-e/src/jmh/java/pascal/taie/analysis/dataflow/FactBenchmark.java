@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Benchmarks the operations of {@link MapFact} and {@link CPFact}
+ * used by constant propagation, on facts mapping the variables of
+ * a synthetic IR to constants and NACs.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FactBenchmark {
+
+    @Param({"16", "128", "1024"})
+    private int vars;
+
+    private MapFact<Var, Value> mapFact;
+
+    private MapFact<Var, Value> otherMapFact;
+
+    private CPFact cpFact;
+
+    private CPFact otherCPFact;
+
+    private Var var;
+
+    @Setup
+    public void setup() {
+        IR ir = SyntheticIR.build(vars * 8, 0);
+        List<Var> universe = ir.getVars();
+        mapFact = new MapFact<>(Collections.emptyMap());
+        otherMapFact = new MapFact<>(Collections.emptyMap());
+        cpFact = new CPFact();
+        otherCPFact = new CPFact();
+        for (Var v : universe) {
+            Value value = Value.makeConstant(v.getIndex());
+            // the two facts disagree on every third variable
+            Value other = v.getIndex() % 3 == 0 ? Value.getNAC() : value;
+            mapFact.update(v, value);
+            otherMapFact.update(v, other);
+            cpFact.update(v, value);
+            otherCPFact.update(v, other);
+        }
+        var = universe.get(universe.size() / 2);
+    }
+
+    @Benchmark
+    public MapFact<Var, Value> mapFactCopyUpdate() {
+        MapFact<Var, Value> fact = mapFact.copy();
+        fact.update(var, Value.getNAC());
+        return fact;
+    }
+
+    @Benchmark
+    public CPFact cpFactCopyUpdate() {
+        CPFact fact = cpFact.copy();
+        fact.update(var, Value.getNAC());
+        return fact;
+    }
+
+    @Benchmark
+    public MapFact<Var, Value> mapFactCopyFrom() {
+        MapFact<Var, Value> fact = new MapFact<>(Collections.emptyMap());
+        fact.copyFrom(otherMapFact);
+        return fact;
+    }
+
+    @Benchmark
+    public CPFact cpFactCopyFrom() {
+        CPFact fact = new CPFact();
+        fact.copyFrom(otherCPFact);
+        return fact;
+    }
+
+    @Benchmark
+    public CPFact cpFactMeet() {
+        CPFact fact = cpFact.copy();
+        fact.meet(otherCPFact);
+        return fact;
+    }
+
+    @Benchmark
+    public boolean mapFactEquals() {
+        return mapFact.equals(otherMapFact);
+    }
+
+    @Benchmark
+    public boolean cpFactEquals() {
+        return cpFact.equals(otherCPFact);
+    }
+
+    @Benchmark
+    public Value cpFactGet() {
+        return cpFact.get(var);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Map;
+
+/**
+ * Benchmarks {@link pascal.taie.analysis.dataflow.solver.WorkListSolver}
+ * by solving constant propagation on synthetic CFGs, and compares it
+ * with the sparse mode of constant propagation.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SolverBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"0", "2", "4"})
+    private int loopDepth;
+
+    @Param({"false", "true"})
+    private boolean sparse;
+
+    private IR ir;
+
+    private ConstantPropagation analysis;
+
+    @Setup
+    public void setup() {
+        ir = SyntheticIR.build(size, loopDepth);
+        analysis = new ConstantPropagation(SyntheticIR.config(
+                ConstantPropagation.ID, Map.of("sparse", sparse)));
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, CPFact> constantPropagation() {
+        return analysis.analyze(ir);
+    }
+}
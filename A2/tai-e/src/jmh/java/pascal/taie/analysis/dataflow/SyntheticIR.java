@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds synthetic IRs (and their CFGs) of int computations for
+ * benchmarks, so that the benchmarks do not depend on the front end.
+ * <p>
+ * The IR consists of {@code loopDepth} nested loops bounded by an int
+ * parameter, whose innermost body contains {@code size} assignments over
+ * a pool of local variables, with a forward branch every 16 statements.
+ */
+public final class SyntheticIR {
+
+    private SyntheticIR() {
+    }
+
+    /**
+     * @return a new IR whose CFG has been built and stored in it.
+     */
+    public static IR build(int size, int loopDepth) {
+        List<Var> vars = new ArrayList<>();
+        Var p = newVar(vars, "p");
+        Var one = newVar(vars, "one");
+        Var[] counters = new Var[loopDepth];
+        for (int l = 0; l < loopDepth; ++l) {
+            counters[l] = newVar(vars, "i" + l);
+        }
+        Var[] locals = new Var[Math.max(4, size / 8)];
+        for (int k = 0; k < locals.length; ++k) {
+            locals[k] = newVar(vars, "v" + k);
+        }
+        List<Stmt> stmts = new ArrayList<>();
+        stmts.add(new AssignLiteral(one, IntLiteral.get(1)));
+        for (Var local : locals) {
+            stmts.add(new AssignLiteral(local, IntLiteral.get(0)));
+        }
+        // loop headers, from outer to inner
+        If[] headers = new If[loopDepth];
+        for (int l = 0; l < loopDepth; ++l) {
+            stmts.add(new AssignLiteral(counters[l], IntLiteral.get(0)));
+            headers[l] = new If(new ConditionExp(
+                    ConditionExp.Op.GE, counters[l], p));
+            stmts.add(headers[l]);
+        }
+        // innermost body, forward branches are resolved once their
+        // targets are created
+        List<If> branches = new ArrayList<>();
+        List<Integer> branchTargets = new ArrayList<>();
+        for (int j = 0; j < size; ++j) {
+            Var lhs = locals[j % locals.length];
+            if (j % 16 == 15) {
+                If branch = new If(new ConditionExp(ConditionExp.Op.LT,
+                        locals[(j * 7) % locals.length], lhs));
+                branches.add(branch);
+                branchTargets.add(stmts.size() + 2);
+                stmts.add(branch);
+            } else if (j % 4 == 0) {
+                stmts.add(new AssignLiteral(lhs, IntLiteral.get(j)));
+            } else {
+                ArithmeticExp.Op op = j % 4 == 1 ?
+                        ArithmeticExp.Op.ADD : ArithmeticExp.Op.MUL;
+                stmts.add(new Binary(lhs, new ArithmeticExp(op,
+                        locals[(j * 7) % locals.length],
+                        locals[(j * 13 + 1) % locals.length])));
+            }
+        }
+        // loop latches, from inner to outer
+        Goto[] latches = new Goto[loopDepth];
+        int[] exits = new int[loopDepth];
+        for (int l = loopDepth - 1; l >= 0; --l) {
+            stmts.add(new Binary(counters[l], new ArithmeticExp(
+                    ArithmeticExp.Op.ADD, counters[l], one)));
+            latches[l] = new Goto();
+            stmts.add(latches[l]);
+            exits[l] = stmts.size();
+        }
+        stmts.add(new Return(locals[0]));
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        for (int l = 0; l < loopDepth; ++l) {
+            headers[l].setTarget(stmts.get(exits[l]));
+            latches[l].setTarget(headers[l]);
+        }
+        for (int b = 0; b < branches.size(); ++b) {
+            branches.get(b).setTarget(
+                    stmts.get(Math.min(branchTargets.get(b), stmts.size() - 1)));
+        }
+        IR ir = new DefaultIR(null, null, List.of(p), Set.of(locals[0]),
+                vars, stmts, List.of());
+        CFG<Stmt> cfg = new CFGBuilder(config(CFGBuilder.ID,
+                Map.of("exception", "none", "dump", false))).analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return ir;
+    }
+
+    private static Var newVar(List<Var> vars, String name) {
+        Var var = new Var(null, name, PrimitiveType.INT, vars.size());
+        vars.add(var);
+        return var;
+    }
+
+    /**
+     * @return the configuration of the analysis with given ID and options.
+     */
+    public static AnalysisConfig config(String id, Map<String, Object> options) {
+        return new AnalysisConfig(null, null, id, List.of(),
+                new AnalysisOptions(options));
+    }
+}
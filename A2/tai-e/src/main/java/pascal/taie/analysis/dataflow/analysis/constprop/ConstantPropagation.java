@@ -23,12 +23,17 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
@@ -38,8 +43,28 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to run sparse conditional constant propagation
+     * instead of the dense data-flow analysis.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+    }
+
+    /**
+     * Analyzes given IR by the solver, or by
+     * {@link SparseConstantPropagation} if option {@code sparse} is set.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return SparseConstantPropagation.analyze(this, cfg);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -51,7 +76,12 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
         // 这里的CPFact对象用于表示控制流图的边界情况。
-        return new CPFact();
+        // 方法的参数值来自调用者，无法确定，因此将所有可以保存整数的参数设为NAC。
+        CPFact fact = new CPFact();
+        cfg.getIR().getParams().stream()
+                .filter(ConstantPropagation::canHoldInt)
+                .forEach(param -> fact.update(param, Value.getNAC()));
+        return fact;
     }
 
     @Override
@@ -64,9 +94,9 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        // 对每个条目，获取其键值对应的Value对象，然后使用meetValue方法与条目的Value对象进行meet操作。
-        // meet操作的结果用于更新target中对应键的Value对象。
-        fact.entries().forEach(entry -> target.update(entry.getKey(), meetValue(target.get(entry.getKey()), entry.getValue())));
+        // 对每个变量，将fact中的值与target中的值进行meet操作（效果与meetValue相同），并用结果更新target。
+        // CPFact.meet直接在压缩后的值上进行操作，避免了为每个条目创建Map.Entry和Value对象。
+        target.meet(fact);
     }
 
     /**
@@ -90,6 +120,7 @@ public class ConstantPropagation extends
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
         // 首先，创建一个新的CPFact对象newOut，其内容是输入CPFact的副本。
+        // copy只共享in的存储（copy-on-write），只有newOut被修改时才会真正复制。
         CPFact newOut = in.copy();
 
         if (stmt instanceof DefinitionStmt
@@ -98,13 +129,9 @@ public class ConstantPropagation extends
             // 那么就对右值进行求值，然后在newOut中更新该Var对象的值。
             newOut.update((Var) ((DefinitionStmt<?, ?>) stmt).getLValue(), evaluate(((DefinitionStmt<?, ?>) stmt).getRValue(), in));
         }
-        // 检查newOut是否与out相等。
-        boolean result = !newOut.equals(out);
-        // 清空out，并将newOut的值复制到out。
-        out.clear();
-        out.copyFrom(newOut);
+        // 将out设置为newOut，out与newOut共享存储，不再逐项复制；
         // 返回一个布尔值，表示out是否被修改。
-        return result;
+        return out.set(newOut);
     }
 
     /**
@@ -213,4 +240,41 @@ public class ConstantPropagation extends
         // 如果表达式不符合以上任何一种类型，返回NAC。
         return Value.getNAC();
     }
+
+    /**
+     * Decides whether given out edge of given statement may be executed,
+     * i.e., it is not pruned by a constant condition of an {@link If} or
+     * a constant variable of a {@link SwitchStmt}. A condition on variables
+     * that cannot hold int values (e.g., a comparison of references) is
+     * NAC, as such variables never appear in the facts.
+     *
+     * @param in IN fact of the statement
+     * @return true if the edge may be executed, otherwise false.
+     */
+    public static boolean isExecutable(Stmt stmt, Edge<Stmt> edge, CPFact in) {
+        if (stmt instanceof If ifStmt) {
+            ConditionExp cond = ifStmt.getCondition();
+            Value value = canHoldInt(cond.getOperand1()) && canHoldInt(cond.getOperand2()) ?
+                    evaluate(cond, in) : Value.getNAC();
+            return switch (edge.getKind()) {
+                case IF_TRUE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == 1);
+                case IF_FALSE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == 0);
+                default -> true;
+            };
+        }
+        if (stmt instanceof SwitchStmt switchStmt) {
+            Value value = in.get(switchStmt.getVar());
+            return switch (edge.getKind()) {
+                case SWITCH_CASE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == edge.getCaseValue());
+                case SWITCH_DEFAULT -> value.isNAC() ||
+                        (value.isConstant() &&
+                                !switchStmt.getCaseValues().contains(value.getConstant()));
+                default -> true;
+            };
+        }
+        return true;
+    }
 }
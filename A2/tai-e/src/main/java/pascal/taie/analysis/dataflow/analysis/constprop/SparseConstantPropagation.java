@@ -0,0 +1,558 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse conditional constant propagation, which computes the same
+ * facts as {@link ConstantPropagation} but propagates values along
+ * def-use chains of variables instead of through every statement.
+ * <p>
+ * The def-use chains are built by propagating the definitions of each
+ * int variable (including the parameters, which are defined at the entry)
+ * through the live range of the variable, until the variable is redefined.
+ * Then the value of each definition is computed by a work-list algorithm,
+ * which re-evaluates a statement only when the value of a definition
+ * reaching it changes, and visits only the statements reachable via
+ * executable CFG edges, i.e., the branches of {@link If}s and
+ * {@link SwitchStmt}s whose conditions are constants are pruned.
+ * <p>
+ * As the IR is not in SSA form, a definition reaching a statement
+ * contributes to the statement once the definition is executable,
+ * even if it only reaches the statement via non-executable edges.
+ * This is sound, and at least as precise as the dense analysis.
+ * <p>
+ * The facts of the statements are not computed until they are queried.
+ * Then the facts of all statements are computed in one pass which
+ * propagates the values of the definitions through the CFG without
+ * evaluating any expression. The facts of statements that are not
+ * executable are empty (i.e., all variables are UNDEF).
+ */
+class SparseConstantPropagation {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Nodes of the CFG indexed by their indexes.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * Definitions of the statements, indexed by the statements.
+     */
+    private final Def[] defs;
+
+    /**
+     * Definitions whose variables are used by the statements, and
+     * which reach the statements, indexed by the statements.
+     */
+    private final List<List<Def>> reachingUses;
+
+    /**
+     * Indexes of the executable statements.
+     */
+    private final BitSet executable;
+
+    private SparseConstantPropagation(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        int capacity = 0;
+        for (Stmt stmt : cfg) {
+            capacity = Math.max(capacity, stmt.getIndex() + 1);
+        }
+        nodes = new Stmt[capacity];
+        cfg.forEach(stmt -> nodes[stmt.getIndex()] = stmt);
+        defs = new Def[capacity];
+        reachingUses = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; ++i) {
+            reachingUses.add(List.of());
+        }
+        executable = new BitSet(capacity);
+    }
+
+    /**
+     * Analyzes given CFG by sparse conditional constant propagation.
+     *
+     * @return the result whose facts are computed when they are queried.
+     */
+    static DataflowResult<Stmt, CPFact> analyze(
+            ConstantPropagation analysis, CFG<Stmt> cfg) {
+        SparseConstantPropagation scp = new SparseConstantPropagation(analysis, cfg);
+        scp.buildDefUseChains();
+        scp.propagate();
+        return scp.new Result();
+    }
+
+    /**
+     * A definition of an int variable, together with its lattice value.
+     */
+    private static class Def {
+
+        private final Var var;
+
+        /**
+         * The defining statement, or the entry for a parameter.
+         */
+        private final Stmt stmt;
+
+        private Value value;
+
+        /**
+         * Statements which use the variable and are reached by this definition.
+         */
+        private final List<Stmt> uses = new ArrayList<>();
+
+        private Def(Var var, Stmt stmt, Value value) {
+            this.var = var;
+            this.stmt = stmt;
+            this.value = value;
+        }
+    }
+
+    private void buildDefUseChains() {
+        Map<Var, List<Def>> varDefs = new LinkedHashMap<>();
+        Stmt entry = cfg.getEntry();
+        for (Var param : cfg.getIR().getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                varDefs.computeIfAbsent(param, v -> new ArrayList<>())
+                        .add(new Def(param, entry, Value.getNAC()));
+            }
+        }
+        for (Stmt stmt : cfg) {
+            Var var = getDefVar(stmt);
+            if (var != null) {
+                Def def = new Def(var, stmt, Value.getUndef());
+                defs[stmt.getIndex()] = def;
+                varDefs.computeIfAbsent(var, v -> new ArrayList<>()).add(def);
+            }
+        }
+        ChainBuilder builder = new ChainBuilder(computeLiveIns());
+        varDefs.values().forEach(builder::build);
+    }
+
+    /**
+     * @return the int variable defined by given statement,
+     * or null if the statement does not define such a variable.
+     */
+    private static Var getDefVar(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var var
+                && ConstantPropagation.canHoldInt(var)) {
+            return var;
+        }
+        return null;
+    }
+
+    /**
+     * Computes the int variables live before the statements, represented
+     * as bit sets over the indexes of the variables.
+     *
+     * @return the live variables indexed by the statements.
+     */
+    private BitSet[] computeLiveIns() {
+        BitSet[] liveIns = new BitSet[nodes.length];
+        // the pending statements are polled in the descending order of
+        // indexes, which starts from the exit as it has the largest index
+        BitSet pending = new BitSet(nodes.length);
+        for (Stmt stmt : cfg) {
+            liveIns[stmt.getIndex()] = new BitSet();
+            pending.set(stmt.getIndex());
+        }
+        while (!pending.isEmpty()) {
+            int index = pending.previousSetBit(nodes.length - 1);
+            pending.clear(index);
+            Stmt stmt = nodes[index];
+            BitSet in = new BitSet();
+            for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                in.or(liveIns[succ.getIndex()]);
+            }
+            Var def = getDefVar(stmt);
+            if (def != null) {
+                in.clear(def.getIndex());
+            }
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                    in.set(var.getIndex());
+                }
+            }
+            if (!in.equals(liveIns[index])) {
+                liveIns[index] = in;
+                for (Stmt pred : cfg.getPredsOf(stmt)) {
+                    pending.set(pred.getIndex());
+                }
+            }
+        }
+        return liveIns;
+    }
+
+    /**
+     * Builds the def-use chains variable by variable. For a variable,
+     * the definitions reaching the statements are propagated as bit sets
+     * over the definitions of the variable, and only through the
+     * statements where the variable is live, as the definitions reach
+     * no more uses elsewhere. Thus, the work of a variable is bounded by
+     * its live range instead of the size of the CFG.
+     */
+    private class ChainBuilder {
+
+        private final BitSet[] liveIns;
+
+        /**
+         * Indexes of the successors of the statements, indexed by the statements.
+         */
+        private final int[][] succs;
+
+        /**
+         * Indexes of the int variables used by the statements,
+         * indexed by the statements.
+         */
+        private final int[][] uses;
+
+        /**
+         * Bit sets of the definitions reaching the statements in the
+         * current walk, where the set of the statement of index {@code i}
+         * takes the {@link #words} longs from {@code i * words}.
+         */
+        private long[] reaching = new long[0];
+
+        private int words;
+
+        /**
+         * Statements visited by the current walk are marked by its number,
+         * so that the marks need not be cleared between the walks.
+         */
+        private final int[] visits;
+
+        private int walk;
+
+        /**
+         * Indexes of the statements visited by the current walk.
+         */
+        private final int[] visited;
+
+        private int visitedCount;
+
+        /**
+         * Statements to be processed, which are polled in the order of
+         * indexes, as it mostly follows the control flow.
+         */
+        private final BitSet pending;
+
+        private ChainBuilder(BitSet[] liveIns) {
+            this.liveIns = liveIns;
+            succs = new int[nodes.length][];
+            uses = new int[nodes.length][];
+            for (Stmt stmt : cfg) {
+                succs[stmt.getIndex()] = cfg.getSuccsOf(stmt).stream()
+                        .mapToInt(Stmt::getIndex)
+                        .toArray();
+                uses[stmt.getIndex()] = stmt.getUses().stream()
+                        .filter(use -> use instanceof Var var
+                                && ConstantPropagation.canHoldInt(var))
+                        .mapToInt(use -> ((Var) use).getIndex())
+                        .toArray();
+            }
+            visits = new int[nodes.length];
+            visited = new int[nodes.length];
+            pending = new BitSet(nodes.length);
+        }
+
+        /**
+         * Connects given definitions of a variable to the uses they reach.
+         */
+        private void build(List<Def> varDefs) {
+            int var = varDefs.get(0).var.getIndex();
+            ++walk;
+            visitedCount = 0;
+            words = (varDefs.size() + 63) >>> 6;
+            if (reaching.length < nodes.length * words) {
+                reaching = new long[nodes.length * words];
+            }
+            for (int i = 0; i < varDefs.size(); ++i) {
+                for (int target : succs[varDefs.get(i).stmt.getIndex()]) {
+                    if (visit(target, var)) {
+                        int word = target * words + (i >>> 6);
+                        reaching[word] |= 1L << i;
+                        pending.set(target);
+                    }
+                }
+            }
+            // sweep the pending statements in the order of indexes
+            // repeatedly, until none of them is pending
+            int index = pending.nextSetBit(0);
+            while (index != -1) {
+                pending.clear(index);
+                // the definitions are killed by the redefinition of the variable
+                if (defs[index] != null && defs[index].var.getIndex() == var) {
+                    index = nextPending(index);
+                    continue;
+                }
+                for (int target : succs[index]) {
+                    if (visit(target, var) && merge(index, target)) {
+                        pending.set(target);
+                    }
+                }
+                index = nextPending(index);
+            }
+            for (int v = 0; v < visitedCount; ++v) {
+                int visitedIndex = visited[v];
+                if (isUsed(visitedIndex, var)) {
+                    Stmt stmt = nodes[visitedIndex];
+                    for (int i = 0; i < varDefs.size(); ++i) {
+                        if ((reaching[visitedIndex * words + (i >>> 6)] & (1L << i)) != 0) {
+                            Def def = varDefs.get(i);
+                            addReachingUse(stmt, def);
+                            def.uses.add(stmt);
+                        }
+                    }
+                }
+            }
+        }
+
+        private int nextPending(int index) {
+            int next = pending.nextSetBit(index + 1);
+            return next != -1 ? next : pending.nextSetBit(0);
+        }
+
+        private boolean isUsed(int index, int var) {
+            for (int use : uses[index]) {
+                if (use == var) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Marks given statement as visited by the current walk if the
+         * variable of given index is live before it, and clears its reaching definitions
+         * when it is visited for the first time.
+         *
+         * @return true if the variable is live before the statement.
+         */
+        private boolean visit(int index, int var) {
+            if (visits[index] == walk) {
+                return true;
+            }
+            if (!liveIns[index].get(var)) {
+                return false;
+            }
+            visits[index] = walk;
+            visited[visitedCount++] = index;
+            Arrays.fill(reaching, index * words, (index + 1) * words, 0L);
+            return true;
+        }
+
+        /**
+         * Merges the reaching definitions of the source statement into
+         * the ones of the target statement.
+         *
+         * @return true if the reaching definitions of the target changed.
+         */
+        private boolean merge(int source, int target) {
+            boolean changed = false;
+            for (int w = 0; w < words; ++w) {
+                long old = reaching[target * words + w];
+                long merged = old | reaching[source * words + w];
+                if (merged != old) {
+                    reaching[target * words + w] = merged;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+    }
+
+    private void addReachingUse(Stmt stmt, Def def) {
+        int index = stmt.getIndex();
+        if (reachingUses.get(index).isEmpty()) {
+            reachingUses.set(index, new ArrayList<>());
+        }
+        reachingUses.get(index).add(def);
+    }
+
+    private void propagate() {
+        Deque<Stmt> workList = new ArrayDeque<>();
+        executable.set(cfg.getEntry().getIndex());
+        workList.add(cfg.getEntry());
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            CPFact in = evaluateUses(stmt);
+            Def def = defs[stmt.getIndex()];
+            if (def != null) {
+                Value value = ConstantPropagation.evaluate(
+                        ((DefinitionStmt<?, ?>) stmt).getRValue(), in);
+                // meet with the old value, so that the value only descends
+                // in the lattice and the propagation terminates
+                Value newValue = analysis.meetValue(def.value, value);
+                if (!newValue.equals(def.value)) {
+                    def.value = newValue;
+                    for (Stmt use : def.uses) {
+                        if (executable.get(use.getIndex())) {
+                            workList.add(use);
+                        }
+                    }
+                }
+            }
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                Stmt target = edge.getTarget();
+                if (!executable.get(target.getIndex())
+                        && ConstantPropagation.isExecutable(stmt, edge, in)) {
+                    executable.set(target.getIndex());
+                    workList.add(target);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the fact which contains the values of the variables used
+     * by given statement.
+     */
+    private CPFact evaluateUses(Stmt stmt) {
+        CPFact in = new CPFact();
+        for (Def def : reachingUses.get(stmt.getIndex())) {
+            in.update(def.var, analysis.meetValue(in.get(def.var), def.value));
+        }
+        return in;
+    }
+
+    /**
+     * Computes the facts of all statements from the values of the
+     * definitions. The values flow along all CFG edges, so that each
+     * fact meets the values of the definitions reaching the statement,
+     * the same as the values used in {@link #propagate()}.
+     */
+    private DataflowResult<Stmt, CPFact> computeFacts() {
+        CPFact[] inFacts = new CPFact[nodes.length];
+        CPFact[] outFacts = new CPFact[nodes.length];
+        // the pending statements are polled in the order of indexes,
+        // which mostly follows the control flow
+        BitSet pending = new BitSet(nodes.length);
+        for (Stmt stmt : nodes) {
+            if (stmt != null) {
+                pending.set(stmt.getIndex());
+            }
+        }
+        Stmt entry = cfg.getEntry();
+        while (!pending.isEmpty()) {
+            int index = pending.nextSetBit(0);
+            pending.clear(index);
+            Stmt stmt = nodes[index];
+            CPFact in = stmt == entry ?
+                    analysis.newBoundaryFact(cfg) : new CPFact();
+            for (Stmt pred : cfg.getPredsOf(stmt)) {
+                CPFact predOut = outFacts[pred.getIndex()];
+                if (predOut != null) {
+                    in.meet(predOut);
+                }
+            }
+            inFacts[index] = in;
+            CPFact out = in.copy();
+            Def def = defs[index];
+            if (def != null) {
+                // updating with UNDEF removes the variable,
+                // i.e., the definitions of other statements are killed
+                out.update(def.var, def.value);
+            }
+            if (!out.equals(outFacts[index])) {
+                outFacts[index] = out;
+                for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                    pending.set(succ.getIndex());
+                }
+            }
+        }
+        IndexedDataflowResult<Stmt, CPFact> result =
+                new IndexedDataflowResult<>(nodes.length);
+        for (Stmt stmt : nodes) {
+            if (stmt != null) {
+                int index = stmt.getIndex();
+                if (executable.get(index)) {
+                    result.setInFact(stmt, inFacts[index]);
+                    result.setOutFact(stmt, outFacts[index]);
+                } else {
+                    result.setInFact(stmt, new CPFact());
+                    result.setOutFact(stmt, new CPFact());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The view of the analysis result as data-flow facts of the statements.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        private DataflowResult<Stmt, CPFact> facts;
+
+        private DataflowResult<Stmt, CPFact> getFacts() {
+            if (facts == null) {
+                facts = computeFacts();
+            }
+            return facts;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            return getFacts().getInFact(stmt);
+        }
+
+        @Override
+        public void setInFact(Stmt stmt, CPFact fact) {
+            getFacts().setInFact(stmt, fact);
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            return getFacts().getOutFact(stmt);
+        }
+
+        @Override
+        public void setOutFact(Stmt stmt, CPFact fact) {
+            getFacts().setOutFact(stmt, fact);
+        }
+    }
+}
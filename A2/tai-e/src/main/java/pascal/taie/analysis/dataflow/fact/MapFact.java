@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.fact;
 
 import pascal.taie.util.collection.Maps;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
@@ -34,6 +35,12 @@ import java.util.stream.Stream;
 
 /**
  * Represents map-like data-flow facts.
+ * <p>
+ * The facts are copy-on-write: {@link #copy()} and {@link #set(MapFact)}
+ * share the underlying map among the facts, and a fact copies the map
+ * only when it is modified while sharing the map. Thus, the facts of
+ * statements which do not change the data-flow information share their
+ * storage, and comparing such facts does not need to iterate the maps.
  *
  * @param <K> type of keys
  * @param <V> type of values
@@ -41,9 +48,15 @@ import java.util.stream.Stream;
 public class MapFact<K, V> {
 
     /**
-     * The map holding the mappings of this MapFact.
+     * The map holding the mappings of this MapFact. The map may be shared
+     * with other facts, thus subclasses should not modify it directly.
      */
-    protected final Map<K, V> map;
+    protected Map<K, V> map;
+
+    /**
+     * Whether {@link #map} may be shared with other facts.
+     */
+    private boolean shared;
 
     /**
      * Constructs a new MapFact with the same mappings as specified Map.
@@ -54,6 +67,34 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a MapFact for the subclasses which maintain
+     * the mappings by themselves, and thus override all methods
+     * accessing {@link #map}.
+     */
+    protected MapFact() {
+        this.map = Collections.emptyMap();
+    }
+
+    /**
+     * Constructs a new MapFact which shares the mappings with given fact.
+     */
+    private MapFact(MapFact<K, V> fact) {
+        this.map = fact.map;
+        this.shared = fact.shared = true;
+    }
+
+    /**
+     * Copies the map before modifying it if the map is shared,
+     * so that the modification is invisible to other facts.
+     */
+    private void ensureExclusive() {
+        if (shared) {
+            map = Maps.newHybridMap(map);
+            shared = false;
+        }
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -68,6 +109,10 @@ public class MapFact<K, V> {
      * @return if the update changes this fact.
      */
     public boolean update(K key, V value) {
+        if (value != null && value.equals(map.get(key))) {
+            return false;
+        }
+        ensureExclusive();
         return !Objects.equals(map.put(key, value), value);
     }
 
@@ -78,6 +123,10 @@ public class MapFact<K, V> {
      * or null if there was no mapping for key.
      */
     public V remove(K key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        ensureExclusive();
         return map.remove(key);
     }
 
@@ -88,31 +137,60 @@ public class MapFact<K, V> {
      */
     public boolean copyFrom(MapFact<K, V> fact) {
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
-            changed |= update(entry.getKey(), entry.getValue());
+        for (K key : fact.keySet()) {
+            changed |= update(key, fact.get(key));
         }
         return changed;
     }
 
+    /**
+     * Sets the content of this fact to the same as given fact.
+     * If the two facts are of the same class, then they share
+     * the mappings until either of them is modified.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean set(MapFact<K, V> fact) {
+        if (fact.getClass() != getClass()) {
+            // the given fact may not hold its mappings in map
+            MapFact<K, V> snapshot = new MapFact<>(Collections.emptyMap());
+            snapshot.copyFrom(fact);
+            fact = snapshot;
+        }
+        if (map == fact.map) {
+            return false;
+        }
+        boolean changed = !map.equals(fact.map);
+        fact.shared = true;
+        map = fact.map;
+        shared = true;
+        return changed;
+    }
+
     /**
      * Creates and returns a copy of this fact.
      */
     public MapFact<K, V> copy() {
-        return new MapFact<>(this.map);
+        return new MapFact<>(this);
     }
 
     /**
      * Clears all content in this fact.
      */
     public void clear() {
-        map.clear();
+        if (shared) {
+            map = Maps.newHybridMap();
+            shared = false;
+        } else {
+            map.clear();
+        }
     }
 
     /**
-     * @return a {@link Set} view of the keys contained in this fact.
+     * @return an unmodifiable {@link Set} view of the keys contained in this fact.
      */
     public Set<K> keySet() {
-        return map.keySet();
+        return Collections.unmodifiableSet(map.keySet());
     }
 
     /**
@@ -141,7 +219,7 @@ public class MapFact<K, V> {
             return false;
         }
         MapFact<?, ?> that = (MapFact<?, ?>) o;
-        return map.equals(that.map);
+        return map == that.map || map.equals(that.map);
     }
 
     @Override
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Work-list of CFG nodes which always hands out the pending node that
+ * comes first in reverse postorder of the CFG (or of the reversed CFG
+ * for backward analyses), so that a node is usually processed after
+ * all its predecessors (successors) in the direction of the analysis.
+ * <p>
+ * Each node is numbered once by its order, and the pending nodes
+ * are kept in a bit set over these numbers, which serves as both
+ * the membership test and the priority queue. The orders are stored
+ * in an array indexed by {@link Indexable#getIndex()} of the nodes,
+ * e.g., the {@link pascal.taie.ir.stmt.Stmt}s of a CFG, whose entry
+ * and exit are indexed right after the statements of the method.
+ * Thus adding and polling nodes neither allocate nor hash.
+ *
+ * @param <Node> type of CFG nodes, which must be {@link Indexable}
+ */
+class PriorityWorkList<Node> {
+
+    /**
+     * Marks of the nodes in {@link #orders} during the depth-first search.
+     */
+    private static final int UNVISITED = -1, VISITED = -2;
+
+    /**
+     * Nodes indexed by their orders.
+     */
+    private final Node[] nodes;
+
+    /**
+     * Orders of the nodes indexed by their indexes.
+     */
+    private final int[] orders;
+
+    /**
+     * Orders of the pending nodes.
+     */
+    private final BitSet pending;
+
+    @SuppressWarnings("unchecked")
+    PriorityWorkList(CFG<Node> cfg, boolean isForward) {
+        int size = cfg.getNumberOfNodes();
+        nodes = (Node[]) new Object[size];
+        int capacity = 0;
+        for (Node node : cfg) {
+            capacity = Math.max(capacity, indexOf(node) + 1);
+        }
+        orders = new int[capacity];
+        Arrays.fill(orders, UNVISITED);
+        pending = new BitSet(size);
+        // compute postorder by iterative depth-first search from
+        // the entry (exit) node, so that deep CFGs do not overflow stack
+        Node root = isForward ? cfg.getEntry() : cfg.getExit();
+        Node[] postorder = (Node[]) new Object[size];
+        int count = 0;
+        Deque<Iterator<Node>> stack = new ArrayDeque<>();
+        Deque<Node> path = new ArrayDeque<>();
+        orders[indexOf(root)] = VISITED;
+        path.push(root);
+        stack.push(successors(cfg, root, isForward).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> it = stack.peek();
+            if (it.hasNext()) {
+                Node next = it.next();
+                if (orders[indexOf(next)] == UNVISITED) {
+                    orders[indexOf(next)] = VISITED;
+                    path.push(next);
+                    stack.push(successors(cfg, next, isForward).iterator());
+                }
+            } else {
+                stack.pop();
+                postorder[count++] = path.pop();
+            }
+        }
+        // reverse the postorder
+        for (int i = 0; i < count; ++i) {
+            setOrder(postorder[count - 1 - i], i);
+        }
+        // nodes unreachable from the root are processed last
+        int order = count;
+        for (Node node : cfg) {
+            if (orders[indexOf(node)] == UNVISITED) {
+                setOrder(node, order++);
+            }
+        }
+    }
+
+    private static int indexOf(Object node) {
+        return ((Indexable) node).getIndex();
+    }
+
+    private static <Node> Collection<Node> successors(
+            CFG<Node> cfg, Node node, boolean isForward) {
+        return isForward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+    }
+
+    private void setOrder(Node node, int order) {
+        nodes[order] = node;
+        orders[indexOf(node)] = order;
+    }
+
+    /**
+     * Adds a node to this work-list if it is not pending.
+     */
+    void add(Node node) {
+        pending.set(orders[indexOf(node)]);
+    }
+
+    void addAll(Collection<Node> nodes) {
+        for (Node node : nodes) {
+            add(node);
+        }
+    }
+
+    /**
+     * Adds all nodes of the CFG to this work-list.
+     */
+    void addAllNodes() {
+        pending.set(0, nodes.length);
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Removes and returns the pending node with the smallest order.
+     */
+    Node poll() {
+        int order = pending.nextSetBit(0);
+        pending.clear(order);
+        return nodes[order];
+    }
+}
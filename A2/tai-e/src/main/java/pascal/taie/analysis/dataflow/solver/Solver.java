@@ -24,7 +24,9 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -67,7 +69,7 @@ public abstract class Solver<Node, Fact> {
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +78,25 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * For CFGs of {@link Stmt}s, creates a result which stores the facts
+     * in arrays indexed by the stmts, so that the solvers can access the
+     * facts without hashing.
+     *
+     * @return a new empty data-flow result for given CFG.
+     */
+    private DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            int capacity = 0;
+            for (Node node : cfg) {
+                capacity = Math.max(capacity, ((Stmt) node).getIndex() + 1);
+            }
+            return new IndexedDataflowResult<>(capacity);
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         // 将控制流图（CFG）的入口节点的出口fact设置为边界fact。
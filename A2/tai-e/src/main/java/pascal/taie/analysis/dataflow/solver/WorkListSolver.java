@@ -23,17 +23,9 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
-
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
@@ -43,31 +35,32 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        // 初始化一个工作列表，包含控制流图（CFG）的所有节点。
-        Set<Node> worklist = new HashSet<>() {{ addAll(cfg.getNodes()); }};
+        // 初始化一个工作列表，包含控制流图（CFG）的所有节点，按逆后序（reverse postorder）出队，
+        // 使得每个节点通常在其所有前驱之后才被处理，减少不必要的迭代。
+        PriorityWorkList<Node> worklist = new PriorityWorkList<>(cfg, true);
+        worklist.addAllNodes();
+        // 在循环之外为每个节点创建一次入口fact，避免每次出队都创建新的fact。
+        // 由于各前驱的出口fact在迭代过程中只会沿格下降，入口fact也只会下降，
+        // 因此直接将前驱的出口fact meet进原有的入口fact，结果与重新创建后再meet相同。
+        // 入口节点没有前驱，其入口fact即为边界fact。
+        for (Node node : cfg) {
+            result.setInFact(node, node == cfg.getEntry() ?
+                    this.analysis.newBoundaryFact(cfg) :
+                    this.analysis.newInitialFact());
+        }
         // 当工作列表不为空时，进行迭代。
         while (!worklist.isEmpty()) {
-            // 对于工作列表中的每一个节点，执行以下操作：
-            (new HashSet<Node>(worklist)).forEach(node -> {
-                // 从工作列表中移除当前节点。
-                worklist.remove(node);
-                // 创建一个新的初始fact。
-                Fact in = this.analysis.newInitialFact();
-                // 如果当前节点是CFG的入口节点，将所有可以保存整数的参数的fact更新为NAC。
-                if (node == cfg.getEntry()) {
-                    cfg.getIR().getParams().stream()
-                            .filter(ConstantPropagation::canHoldInt)
-                            .forEach(param -> ((CPFact) in).update(param, Value.getNAC()));
-                }
-                // 对于当前节点的所有前驱节点，将它们的出口fact与当前节点的入口fact进行meet操作。
-                cfg.getPredsOf(node).forEach(pred -> this.analysis.meetInto(result.getOutFact(pred), in));
-                // 将当前节点的入口fact设置为计算得到的fact。
-                result.setInFact(node, in);
-                // 对当前节点进行转移函数操作，如果结果发生变化，将当前节点的所有后继节点加入工作列表。
-                if (this.analysis.transferNode(node, in, result.getOutFact(node))) {
-                    worklist.addAll(cfg.getSuccsOf(node));
-                }
-            });
+            // 从工作列表中取出逆后序最小的节点。
+            Node node = worklist.poll();
+            Fact in = result.getInFact(node);
+            // 对于当前节点的所有前驱节点，将它们的出口fact与当前节点的入口fact进行meet操作。
+            for (Node pred : cfg.getPredsOf(node)) {
+                this.analysis.meetInto(result.getOutFact(pred), in);
+            }
+            // 对当前节点进行转移函数操作，如果结果发生变化，将当前节点的所有后继节点加入工作列表。
+            if (this.analysis.transferNode(node, in, result.getOutFact(node))) {
+                worklist.addAll(cfg.getSuccsOf(node));
+            }
         }
     }
 
@@ -27,11 +27,21 @@ import pascal.taie.analysis.Tests;
 
 public class CPTest {
 
+    private static final String[] CASES = {
+            "Assign", "SimpleConstant", "SimpleBinary", "SimpleBranch",
+            "SimpleChar", "BranchConstant", "Interprocedural"
+    };
+
     void testCP(String inputClass) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
                 ConstantPropagation.ID, "edge-refine:false");
     }
 
+    void testCP(String inputClass, String options) {
+        Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
+                ConstantPropagation.ID, "edge-refine:false;" + options);
+    }
+
     @Test
     public void testAssign() {
         testCP("Assign");
@@ -66,4 +76,15 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    /**
+     * None of these cases has a branch that constant propagation prunes,
+     * thus the sparse analysis finds the same facts as the dense one.
+     */
+    @Test
+    public void testSparse() {
+        for (String inputClass : CASES) {
+            testCP(inputClass, "sparse:true");
+        }
+    }
 }
@@ -39,8 +39,18 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -48,6 +58,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -68,8 +79,26 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private final String action;
 
+    /**
+     * Maximum number of methods whose results are processed in parallel,
+     * given by option {@code parallelism}; defaults to 1, i.e., no
+     * parallelism.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether to write the results and read the expected results
+     * incrementally, method by method, instead of holding all of
+     * them in memory.
+     */
+    private final boolean streaming;
+
     private PrintStream out;
 
+    private ChannelOutput channelOutput;
+
+    private ExpectedResults expectedResults;
+
     private MultiMap<Pair<String, String>, String> inputs;
 
     private Set<String> mismatches;
@@ -77,14 +106,25 @@ public class ResultProcessor extends ProgramAnalysis {
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
+        parallelism = getOptions().get("parallelism") instanceof Integer p ?
+                p : 1;
+        streaming = getOptions().getBooleanOrDefault("streaming", false);
     }
 
     @Override
     public Object analyze() {
         // initialization
-        switch (action) {
-            case "dump" -> setOutput();
-            case "compare" -> readInputs();
+        if (streaming) {
+            switch (action) {
+                case "dump" -> channelOutput = ChannelOutput.open(getOptions().getString("file"));
+                case "compare" -> expectedResults = new ExpectedResults(
+                        Path.of(getOptions().getString("file")));
+            }
+        } else {
+            switch (action) {
+                case "dump" -> setOutput();
+                case "compare" -> readInputs();
+            }
         }
         mismatches = new LinkedHashSet<>();
         // Classify given analysis IDs into two groups, one for inter-procedural
@@ -95,8 +135,17 @@ public class ResultProcessor extends ProgramAnalysis {
         Map<Boolean, List<String>> groups = ((List<String>) getOptions().get("analyses"))
                 .stream()
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
-        if (groups.containsKey(false)) {
-            processIntraResults(groups.get(false));
+        try {
+            if (groups.containsKey(false)) {
+                processIntraResults(groups.get(false));
+            }
+        } finally {
+            if (channelOutput != null) {
+                channelOutput.close();
+            }
+            if (expectedResults != null) {
+                expectedResults.close();
+            }
         }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
@@ -164,20 +213,81 @@ public class ResultProcessor extends ProgramAnalysis {
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    /**
+     * Processes the results of the methods in parallel. The output of each
+     * method is collected separately and then emitted in the order of
+     * the given methods, so that the output is deterministic.
+     */
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
-                    }
-                })
-        );
+        if (streaming) {
+            streamResults(methods, analyses, resultGetter);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<List<String>> outputs = pool.submit(() -> methods.parallel()
+                    .map(method -> processResults(method, analyses, resultGetter))
+                    .toList()).join();
+            outputs.forEach(output -> {
+                switch (action) {
+                    case "dump" -> output.forEach(out::print);
+                    case "compare" -> mismatches.addAll(output);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    /**
+     * Processes the results of the methods in streaming mode. For dump,
+     * the results of the methods are computed in parallel and written as
+     * soon as the results of all preceding methods are written. For compare,
+     * the expected results are read along with the methods, thus only the
+     * expected results of the current method are kept in memory as long
+     * as the expected file lists the methods in the same order.
+     */
+    private void streamResults(Stream<JMethod> methods, List<String> analyses,
+                               BiFunction<JMethod, String, ?> resultGetter) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> {
+                switch (action) {
+                    case "dump" -> methods.parallel()
+                            .map(method -> processResults(method, analyses, resultGetter))
+                            .forEachOrdered(output -> output.forEach(channelOutput::write));
+                    case "compare" -> methods.forEachOrdered(method ->
+                            analyses.forEach(id -> compareResult(method, id, resultGetter,
+                                    expectedResults.read(new Pair<>(method.toString(), id)),
+                                    mismatches)));
+                }
+            }).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the dumped results or the mismatches of given method.
+     */
+    private List<String> processResults(JMethod method, List<String> analyses,
+                                        BiFunction<JMethod, String, ?> resultGetter) {
+        List<String> output = new ArrayList<>();
+        analyses.forEach(id -> {
+            switch (action) {
+                case "dump" -> output.add(dumpResult(method, id, resultGetter));
+                case "compare" -> compareResult(method, id, resultGetter,
+                        inputs.get(new Pair<>(method.toString(), id)), output);
+            }
+        });
+        return output;
+    }
+
+    private static String dumpResult(JMethod method, String id,
+                                     BiFunction<JMethod, String, ?> resultGetter) {
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -189,6 +299,8 @@ public class ResultProcessor extends ProgramAnalysis {
             out.println(toString(result));
         }
         out.println();
+        out.flush();
+        return buffer.toString();
     }
 
     /**
@@ -211,9 +323,10 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
-                               BiFunction<JMethod, String, ?> resultGetter) {
-        Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
+    private static void compareResult(JMethod method, String id,
+                                      BiFunction<JMethod, String, ?> resultGetter,
+                                      Set<String> inputResult,
+                                      Collection<String> mismatches) {
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
             Set<String> given = ((Set<?>) result)
@@ -233,12 +346,11 @@ public class ResultProcessor extends ProgramAnalysis {
                 }
             });
         } else if (result instanceof StmtResult<?> StmtResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
             IR ir = method.getIR();
             ir.forEach(stmt -> {
                 String stmtStr = toString(stmt);
                 String given = toString(stmt, StmtResult);
-                for (String line : lines) {
+                for (String line : inputResult) {
                     if (line.startsWith(stmtStr) && !line.equals(given)) {
                         int idx = stmtStr.length();
                         mismatches.add(String.format("%s %s expected: %s, given: %s",
@@ -258,4 +370,173 @@ public class ResultProcessor extends ProgramAnalysis {
                     id, method, inputResult, result);
         }
     }
+
+    /**
+     * Output which encodes the dumped results into a buffer and writes
+     * the buffer to a channel whenever it is full.
+     */
+    private static class ChannelOutput {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final WritableByteChannel channel;
+
+        private final boolean closeChannel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private ChannelOutput(WritableByteChannel channel, boolean closeChannel) {
+            this.channel = channel;
+            this.closeChannel = closeChannel;
+        }
+
+        /**
+         * Opens the output to given file, or to standard output
+         * if the file is null.
+         */
+        private static ChannelOutput open(String file) {
+            if (file == null) {
+                return new ChannelOutput(Channels.newChannel(System.out), false);
+            }
+            try {
+                return new ChannelOutput(FileChannel.open(Path.of(file),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING), true);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open output file", e);
+            }
+        }
+
+        private void write(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            try {
+                if (bytes.length > buffer.remaining()) {
+                    flush();
+                }
+                if (bytes.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write output file", e);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        private void close() {
+            try {
+                flush();
+                if (closeChannel) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write output file", e);
+            }
+        }
+    }
+
+    /**
+     * Reader of the expected results, which reads the results of
+     * a method only when they are requested.
+     * <p>
+     * The results are expected to be listed in the same order as they
+     * are requested. The results skipped when looking for the requested
+     * ones are kept until they are requested, thus the reader still works,
+     * though using more memory, if the order differs.
+     */
+    private static class ExpectedResults {
+
+        private final BufferedReader reader;
+
+        /**
+         * Results read from the file but not requested yet.
+         */
+        private final Map<Pair<String, String>, Set<String>> pending = Maps.newMap();
+
+        /**
+         * Key of the results following the last read line,
+         * or null if the end of the file is reached.
+         */
+        private Pair<String, String> nextKey;
+
+        private ExpectedResults(Path path) {
+            try {
+                reader = Files.newBufferedReader(path);
+                // skip the lines before the first results
+                String line;
+                while (nextKey == null && (line = reader.readLine()) != null) {
+                    nextKey = extractKey(line);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read input file", e);
+            }
+        }
+
+        /**
+         * @return the expected results of given key, or an empty set
+         * if the file does not contain the results of the key.
+         */
+        private Set<String> read(Pair<String, String> key) {
+            Set<String> result = pending.remove(key);
+            if (result != null) {
+                return result;
+            }
+            try {
+                while (nextKey != null) {
+                    Pair<String, String> currentKey = nextKey;
+                    Set<String> lines = readSection();
+                    if (currentKey.equals(key)) {
+                        return lines;
+                    }
+                    pending.merge(currentKey, lines, (s1, s2) -> {
+                        s1.addAll(s2);
+                        return s1;
+                    });
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read input file", e);
+            }
+            return Set.of();
+        }
+
+        /**
+         * Reads the lines of current results, until the key of the next
+         * results or the end of the file.
+         */
+        private Set<String> readSection() throws IOException {
+            Set<String> lines = new LinkedHashSet<>();
+            nextKey = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Pair<String, String> key = extractKey(line);
+                if (key != null) {
+                    nextKey = key;
+                    break;
+                } else if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read input file", e);
+            }
+        }
+    }
 }
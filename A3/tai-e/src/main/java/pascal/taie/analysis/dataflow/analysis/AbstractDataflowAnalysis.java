@@ -61,4 +61,23 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
     public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * By default, a data-flow analysis has lattice of finite height,
+     * and thus does not need widening.
+     */
+    @Override
+    public boolean needWidening() {
+        return false;
+    }
+
+    @Override
+    public Fact widen(Fact oldFact, Fact newFact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Fact narrow(Fact oldFact, Fact newFact) {
+        throw new UnsupportedOperationException();
+    }
 }
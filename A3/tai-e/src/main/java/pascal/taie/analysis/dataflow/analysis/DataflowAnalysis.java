@@ -73,4 +73,32 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     Fact transferEdge(Edge<Node> edge, Fact nodeFact);
+
+    /**
+     * @return true if this analysis needs widening at loop heads to
+     * guarantee termination (e.g., its lattice has infinite height),
+     * otherwise false.
+     */
+    boolean needWidening();
+
+    /**
+     * Widening operator for this analysis, which is applied to the
+     * facts of loop heads instead of meet.
+     *
+     * @param oldFact the fact of the previous iteration
+     * @param newFact the fact of the current iteration
+     * @return a fact that is not less than both given facts.
+     */
+    Fact widen(Fact oldFact, Fact newFact);
+
+    /**
+     * Narrowing operator for this analysis, which is applied to the
+     * facts of loop heads after the fixed point is reached with widening,
+     * to recover the precision lost by widening.
+     *
+     * @param oldFact the fact of the previous iteration
+     * @param newFact the fact of the current iteration
+     * @return a fact that lies between the new fact and the old fact.
+     */
+    Fact narrow(Fact oldFact, Fact newFact);
 }
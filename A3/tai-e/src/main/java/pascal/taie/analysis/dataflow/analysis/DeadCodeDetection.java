@@ -25,6 +25,10 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Interval;
+import pascal.taie.analysis.dataflow.analysis.constprop.IntervalAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.IntervalFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
@@ -49,20 +53,47 @@ public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Interval analysis for deciding the conditions that are not constants,
+     * or null if option {@code interval} is not set.
+     */
+    private final IntervalAnalysis intervalAnalysis;
+
+    /**
+     * Whether to detect dead code by {@link FusedDeadCodeDetection}
+     * instead of the results of constant propagation and live
+     * variable analysis.
+     */
+    private final boolean fused;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        if (getOptions().getBooleanOrDefault("interval", false)) {
+            intervalAnalysis = new IntervalAnalysis(new AnalysisConfig(
+                    "interval analysis", IntervalAnalysis.class.getName(),
+                    IntervalAnalysis.ID, List.of(CFGBuilder.ID), config.getOptions()));
+        } else {
+            intervalAnalysis = null;
+        }
+        fused = getOptions().getBooleanOrDefault("fused", false);
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (fused) {
+            return FusedDeadCodeDetection.analyze(cfg);
+        }
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
+        // obtain result of interval analysis if enabled
+        DataflowResult<Stmt, IntervalFact> intervals = intervalAnalysis != null ?
+                intervalAnalysis.analyze(ir) : null;
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
@@ -91,6 +122,10 @@ public class DeadCodeDetection extends MethodAnalysis {
                 var cpFact = constants.getResult(stmt);
                 // 计算条件的值
                 var value = ConstantPropagation.evaluate(condition,cpFact);
+                // 如果条件的值不是常量，尝试用区间分析的结果确定条件的值
+                if (value.isNAC() && intervals != null) {
+                    value = evaluateCondition(ifStmt, intervals.getInFact(stmt), value);
+                }
 
                 for (Edge<Stmt> stmtEdge : cfg.getOutEdgesOf(stmt)) {
                     // 如果条件的值是不确定的，或者条件的值是真并且边的类型是IF_TRUE
@@ -170,6 +205,18 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * @return the value of the condition of given {@link If} decided by
+     * its interval, or given value if the interval does not decide it.
+     */
+    private static Value evaluateCondition(If ifStmt, IntervalFact fact, Value value) {
+        Interval interval = IntervalAnalysis.evaluateCondition(ifStmt, fact);
+        if (interval != null && interval.isConstant()) {
+            return Value.makeConstant(interval.getLower());
+        }
+        return value;
+    }
+
     private boolean isUnusedVar(Stmt node,DataflowResult<Stmt,SetFact<Var>> liveVars){
         // 获取这个语句定义的变量
         var defVar = node.getDef();
@@ -199,7 +246,7 @@ public class DeadCodeDetection extends MethodAnalysis {
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
-    private static boolean hasNoSideEffect(RValue rvalue) {
+    static boolean hasNoSideEffect(RValue rvalue) {
         // new expression modifies the heap
         if (rvalue instanceof NewExp ||
                 // cast may trigger ClassCastException
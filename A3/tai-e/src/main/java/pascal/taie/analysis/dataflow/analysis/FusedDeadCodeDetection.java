@@ -0,0 +1,219 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Dead code detection which computes the constants, the reachability
+ * and the liveness by itself instead of using the results of
+ * {@link ConstantPropagation} and {@link LiveVariableAnalysis}.
+ * <p>
+ * The constants and the reachability are computed together by conditional
+ * constant propagation, which only visits the statements reachable via
+ * executable edges, i.e., the branches that are not pruned by constant
+ * conditions. Then the liveness is computed backward on the executable
+ * statements and edges only, with the live variables represented as bit
+ * sets over the indexes of the variables. The facts of the statements are
+ * kept in arrays indexed by the statements, and are never created for the
+ * unreachable statements. The constant facts are discarded once the
+ * executable edges are known.
+ * <p>
+ * The facts of the unreachable statements do not flow into the reachable
+ * ones, thus this may find more dead code than the separate analyses,
+ * e.g., the assignments after a pruned branch that only reach uses in
+ * the pruned branch.
+ */
+class FusedDeadCodeDetection {
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Nodes of the CFG indexed by their indexes.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * Indexes of the reachable statements.
+     */
+    private final BitSet reachable;
+
+    private final Set<Edge<Stmt>> executableEdges = Sets.newHybridSet();
+
+    /**
+     * Live variables after the statements, indexed by the statements.
+     */
+    private final BitSet[] liveOuts;
+
+    private FusedDeadCodeDetection(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        int capacity = 0;
+        for (Stmt stmt : cfg) {
+            capacity = Math.max(capacity, stmt.getIndex() + 1);
+        }
+        nodes = new Stmt[capacity];
+        cfg.forEach(stmt -> nodes[stmt.getIndex()] = stmt);
+        reachable = new BitSet(capacity);
+        liveOuts = new BitSet[capacity];
+    }
+
+    /**
+     * @return the dead code in given CFG, sorted by the indexes.
+     */
+    static Set<Stmt> analyze(CFG<Stmt> cfg) {
+        FusedDeadCodeDetection detection = new FusedDeadCodeDetection(cfg);
+        detection.propagateConstants();
+        detection.computeLiveness();
+        return detection.collectDeadCode();
+    }
+
+    private void propagateConstants() {
+        CPFact[] outFacts = new CPFact[nodes.length];
+        // the pending statements are polled in the order of indexes,
+        // which mostly follows the control flow
+        BitSet pending = new BitSet(nodes.length);
+        Stmt entry = cfg.getEntry();
+        reachable.set(entry.getIndex());
+        pending.set(entry.getIndex());
+        while (!pending.isEmpty()) {
+            int index = pending.nextSetBit(0);
+            pending.clear(index);
+            Stmt stmt = nodes[index];
+            CPFact in = new CPFact();
+            if (stmt == entry) {
+                cfg.getIR().getParams().stream()
+                        .filter(ConstantPropagation::canHoldInt)
+                        .forEach(param -> in.update(param, Value.getNAC()));
+            }
+            for (Edge<Stmt> edge : cfg.getInEdgesOf(stmt)) {
+                if (executableEdges.contains(edge)) {
+                    in.meet(outFacts[edge.getSource().getIndex()]);
+                }
+            }
+            CPFact out = in.copy();
+            if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                    && defStmt.getLValue() instanceof Var var
+                    && ConstantPropagation.canHoldInt(var)) {
+                out.update(var, ConstantPropagation.evaluate(defStmt.getRValue(), in));
+            }
+            boolean visited = outFacts[index] != null;
+            if (visited && out.equals(outFacts[index])) {
+                continue;
+            }
+            outFacts[index] = out;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (ConstantPropagation.isExecutable(stmt, edge, in)) {
+                    executableEdges.add(edge);
+                    int target = edge.getTarget().getIndex();
+                    reachable.set(target);
+                    pending.set(target);
+                }
+            }
+        }
+    }
+
+    private void computeLiveness() {
+        BitSet[] liveIns = new BitSet[nodes.length];
+        // the pending statements are polled in the descending order of
+        // indexes, which starts from the exit as it has the largest index
+        BitSet pending = (BitSet) reachable.clone();
+        while (!pending.isEmpty()) {
+            int index = pending.previousSetBit(nodes.length - 1);
+            pending.clear(index);
+            Stmt stmt = nodes[index];
+            BitSet out = new BitSet();
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                BitSet succIn = liveIns[edge.getTarget().getIndex()];
+                if (succIn != null && executableEdges.contains(edge)) {
+                    out.or(succIn);
+                }
+            }
+            liveOuts[index] = out;
+            BitSet in = (BitSet) out.clone();
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    in.clear(var.getIndex());
+                }
+            });
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    in.set(var.getIndex());
+                }
+            }
+            if (!in.equals(liveIns[index])) {
+                liveIns[index] = in;
+                for (Edge<Stmt> edge : cfg.getInEdgesOf(stmt)) {
+                    if (executableEdges.contains(edge)) {
+                        pending.set(edge.getSource().getIndex());
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<Stmt> collectDeadCode() {
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        for (Stmt stmt : cfg) {
+            if (!reachable.get(stmt.getIndex())) {
+                if (stmt != cfg.getExit()) {
+                    deadCode.add(stmt);
+                }
+            } else if (isDeadAssignment(stmt)) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
+
+    /**
+     * @return true if given statement assigns a variable which is not
+     * live after it, and has no side effect.
+     */
+    private boolean isDeadAssignment(Stmt stmt) {
+        if (stmt.getDef().isEmpty()) {
+            return false;
+        }
+        for (RValue use : stmt.getUses()) {
+            if (!DeadCodeDetection.hasNoSideEffect(use)) {
+                return false;
+            }
+        }
+        return stmt.getDef().get() instanceof Var var
+                && !liveOuts[stmt.getIndex()].get(var.getIndex());
+    }
+}
@@ -22,15 +22,19 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
 import javax.swing.text.html.Option;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,8 +46,41 @@ public class LiveVariableAnalysis extends
 
     public static final String ID = "livevar";
 
+    /**
+     * Version of the analysis, which is stored with the cached results.
+     * It should be increased whenever the analysis computes different
+     * results, so that the results cached by earlier versions are discarded.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Cache of the results of previous runs, or null if option
+     * {@code cache-dir} is not given.
+     */
+    private final LiveVariableCache cache;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        String cacheDir = getOptions().getString("cache-dir");
+        cache = cacheDir != null ? new LiveVariableCache(Path.of(cacheDir), VERSION) : null;
+    }
+
+    /**
+     * Loads the result of given IR from the cache if the IR is unchanged
+     * since it was cached, otherwise solves the IR and caches the result.
+     */
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> analyze(IR ir) {
+        if (cache == null) {
+            return super.analyze(ir);
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> result = cache.load(cfg, SetFact::new);
+        if (result == null) {
+            result = super.analyze(ir);
+            cache.store(cfg, result);
+        }
+        return result;
     }
 
     @Override
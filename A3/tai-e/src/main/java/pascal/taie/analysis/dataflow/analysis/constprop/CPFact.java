@@ -24,9 +24,15 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Sets;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Represents data facts of constant propagation, which maps variables
@@ -37,15 +43,190 @@ import java.util.Map;
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
+ * <p>
+ * To avoid creating map entries and {@link Value}s for every fact,
+ * the mappings are stored in fixed-size pages indexed by the indexes
+ * of the variables, where the lattice values are packed into longs.
+ * As the indexes are dense in the containing method, a fact should only
+ * hold the variables of a single method.
+ * <p>
+ * The pages are shared structurally: {@link #copy()} and
+ * {@link #set(MapFact)} share the directory of pages, and modifying
+ * a fact copies the directory and only the page being modified.
+ * Thus, the facts of a method share all pages which are not changed
+ * between them, and the memory of the facts grows with the number of
+ * changed pages instead of the number of variables. Meeting and
+ * comparing facts also skip the pages they share.
  */
 public class CPFact extends MapFact<Var, Value> {
 
+    /**
+     * Number of bits of variable indexes within a page.
+     */
+    private static final int PAGE_BITS = 4;
+
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final Page[] EMPTY_PAGES = {};
+
+    private static final boolean[] EMPTY_OWNED = {};
+
+    /**
+     * Tag of packed constant values, whose lower 32 bits hold the constant.
+     */
+    private static final long CONSTANT = 1L << 32;
+
+    /**
+     * Packed value of NAC.
+     */
+    private static final long NAC = 2L << 32;
+
+    /**
+     * Directory of the pages, where the variable of index {@code i} is
+     * in page {@code i >> PAGE_BITS}, and null represents empty page.
+     */
+    private Page[] pages;
+
+    /**
+     * Whether the pages in the same positions of {@link #pages} are owned
+     * by this fact, i.e., are not shared with other facts. Meaningless
+     * when the directory is shared.
+     */
+    private boolean[] owned;
+
+    /**
+     * Number of mappings in this fact.
+     */
+    private int size;
+
+    /**
+     * Whether the directory, and thus all pages, may be shared with other facts.
+     */
+    private boolean shared;
+
+    /**
+     * Mappings of {@link #PAGE_SIZE} variables with consecutive indexes.
+     */
+    private static final class Page {
+
+        /**
+         * Variables in the page, where null represents absent variable.
+         */
+        private final Var[] vars;
+
+        /**
+         * Packed values of the variables in the same slots of {@link #vars}.
+         */
+        private final long[] values;
+
+        private Page() {
+            vars = new Var[PAGE_SIZE];
+            values = new long[PAGE_SIZE];
+        }
+
+        private Page(Page page) {
+            vars = page.vars.clone();
+            values = page.values.clone();
+        }
+    }
+
     public CPFact() {
-        this(Collections.emptyMap());
+        pages = EMPTY_PAGES;
+        owned = EMPTY_OWNED;
+    }
+
+    /**
+     * Constructs a new CPFact which shares the pages with given fact.
+     */
+    private CPFact(CPFact fact) {
+        share(fact);
+    }
+
+    private void share(CPFact fact) {
+        pages = fact.pages;
+        owned = EMPTY_OWNED;
+        size = fact.size;
+        shared = fact.shared = true;
+    }
+
+    /**
+     * @return the page of given index which can be modified exclusively
+     * by this fact. The directory and the page are copied if they are
+     * shared, so that the modification is invisible to other facts.
+     */
+    private Page writablePage(int pageIndex) {
+        if (shared) {
+            pages = pages.clone();
+            owned = new boolean[pages.length];
+            shared = false;
+        }
+        if (pageIndex >= pages.length) {
+            int length = Math.max(pageIndex + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            owned = Arrays.copyOf(owned, length);
+        }
+        Page page = pages[pageIndex];
+        if (page == null) {
+            page = new Page();
+        } else if (!owned[pageIndex]) {
+            page = new Page(page);
+        } else {
+            return page;
+        }
+        pages[pageIndex] = page;
+        owned[pageIndex] = true;
+        return page;
+    }
+
+    private static long pack(Value value) {
+        return value.isNAC() ? NAC :
+                CONSTANT | (value.getConstant() & 0xffffffffL);
+    }
+
+    private static Value unpack(long value) {
+        return value == NAC ? Value.getNAC() : Value.makeConstant((int) value);
+    }
+
+    /**
+     * @return the packed value of given variable, or 0 if the variable
+     * is absent in this fact.
+     */
+    private long getPacked(Var var) {
+        int index = var.getIndex();
+        int pageIndex = index >> PAGE_BITS;
+        if (pageIndex >= pages.length) {
+            return 0;
+        }
+        Page page = pages[pageIndex];
+        int slot = index & PAGE_MASK;
+        return page != null && page.vars[slot] == var ? page.values[slot] : 0;
     }
 
-    private CPFact(Map<Var, Value> map) {
-        super(map);
+    /**
+     * Associates given variable with the packed value.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    private boolean putPacked(Var var, long value) {
+        long oldValue = getPacked(var);
+        if (oldValue == value) {
+            return false;
+        }
+        int index = var.getIndex();
+        Page page = writablePage(index >> PAGE_BITS);
+        int slot = index & PAGE_MASK;
+        if (page.vars[slot] == null) {
+            page.vars[slot] = var;
+            ++size;
+        } else if (page.vars[slot] != var) {
+            throw new IllegalArgumentException("Index of " + var +
+                    " is taken by " + page.vars[slot] +
+                    ", the variables may be of different methods");
+        }
+        page.values[slot] = value;
+        return true;
     }
 
     /**
@@ -54,7 +235,8 @@ public class CPFact extends MapFact<Var, Value> {
      */
     @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        long value = getPacked(key);
+        return value == 0 ? Value.getUndef() : unpack(value);
     }
 
     @Override
@@ -65,12 +247,205 @@ public class CPFact extends MapFact<Var, Value> {
             // as we use absence to represent UNDEF.
             return remove(key) != null;
         } else {
-            return super.update(key, value);
+            return putPacked(key, pack(value));
         }
     }
 
+    @Override
+    public Value remove(Var key) {
+        long oldValue = getPacked(key);
+        if (oldValue == 0) {
+            return null;
+        }
+        int index = key.getIndex();
+        Page page = writablePage(index >> PAGE_BITS);
+        page.vars[index & PAGE_MASK] = null;
+        page.values[index & PAGE_MASK] = 0;
+        --size;
+        return unpack(oldValue);
+    }
+
+    /**
+     * Meets given fact into this fact, i.e., for each variable, sets its
+     * value in this fact to the meet of its values in the two facts.
+     * This has the same effect as applying
+     * {@link ConstantPropagation#meetValue(Value, Value)} to each variable,
+     * but works on the packed values directly, and skips the pages shared
+     * by the two facts, as meeting a value with itself keeps the value.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(CPFact fact) {
+        if (size == 0) {
+            // meeting into an empty fact, e.g., the IN fact of a node
+            // with single predecessor, just shares the given fact
+            return set(fact);
+        }
+        boolean changed = false;
+        for (int p = 0; p < fact.pages.length; ++p) {
+            Page page = fact.pages[p];
+            if (page == null || (p < pages.length && pages[p] == page)) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; ++i) {
+                Var var = page.vars[i];
+                if (var != null) {
+                    long value = page.values[i];
+                    long oldValue = getPacked(var);
+                    if (oldValue == 0) { // UNDEF meets value
+                        changed |= putPacked(var, value);
+                    } else if (oldValue != value) { // different constants or NAC
+                        changed |= putPacked(var, NAC);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        boolean changed = false;
+        if (fact instanceof CPFact cpFact) {
+            for (int p = 0; p < cpFact.pages.length; ++p) {
+                Page page = cpFact.pages[p];
+                if (page == null || (p < pages.length && pages[p] == page)) {
+                    continue;
+                }
+                for (int i = 0; i < PAGE_SIZE; ++i) {
+                    if (page.vars[i] != null) {
+                        changed |= putPacked(page.vars[i], page.values[i]);
+                    }
+                }
+            }
+        } else {
+            for (Var var : fact.keySet()) {
+                changed |= update(var, fact.get(var));
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean set(MapFact<Var, Value> fact) {
+        CPFact cpFact;
+        if (fact instanceof CPFact) {
+            cpFact = (CPFact) fact;
+        } else {
+            cpFact = new CPFact();
+            cpFact.copyFrom(fact);
+        }
+        if (pages == cpFact.pages) {
+            return false;
+        }
+        boolean changed = !equals(cpFact);
+        share(cpFact);
+        return changed;
+    }
+
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        return new CPFact(this);
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            pages = EMPTY_PAGES;
+            owned = EMPTY_OWNED;
+            shared = false;
+        } else {
+            Arrays.fill(pages, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return a {@link Set} of the variables contained in this fact.
+     * Different from {@link MapFact#keySet()}, the returned set is
+     * a snapshot instead of a view of this fact.
+     */
+    @Override
+    public Set<Var> keySet() {
+        Set<Var> keys = Sets.newHybridSet();
+        forEach((var, value) -> keys.add(var));
+        return keys;
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return Arrays.stream(pages)
+                .filter(page -> page != null)
+                .flatMap(page -> Stream.iterate(0, i -> i < PAGE_SIZE, i -> i + 1)
+                        .filter(i -> page.vars[i] != null)
+                        .map(i -> Map.entry(page.vars[i], unpack(page.values[i]))));
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (Page page : pages) {
+            if (page != null) {
+                for (int i = 0; i < PAGE_SIZE; ++i) {
+                    if (page.vars[i] != null) {
+                        action.accept(page.vars[i], unpack(page.values[i]));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CPFact that) || size != that.size) {
+            return false;
+        }
+        if (pages == that.pages) {
+            // facts sharing the same directory
+            return true;
+        }
+        // as the two facts have the same size, it suffices to check
+        // that the mappings of this fact are contained in that fact
+        for (int p = 0; p < pages.length; ++p) {
+            Page page = pages[p];
+            if (page == null || (p < that.pages.length && that.pages[p] == page)) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; ++i) {
+                if (page.vars[i] != null &&
+                        that.getPacked(page.vars[i]) != page.values[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode() and Value.hashCode()
+        int hash = 0;
+        for (Page page : pages) {
+            if (page != null) {
+                for (int i = 0; i < PAGE_SIZE; ++i) {
+                    if (page.vars[i] != null) {
+                        long value = page.values[i];
+                        int valueHash = value == NAC ? 0 : (int) value;
+                        hash += page.vars[i].hashCode() ^ valueHash;
+                    }
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
     }
 }
@@ -23,12 +23,17 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
@@ -38,8 +43,28 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to run sparse conditional constant propagation
+     * instead of the dense data-flow analysis.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+    }
+
+    /**
+     * Analyzes given IR by the solver, or by
+     * {@link SparseConstantPropagation} if option {@code sparse} is set.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return SparseConstantPropagation.analyze(this, cfg);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -50,7 +75,11 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new CPFact();
+        CPFact fact = new CPFact();
+        cfg.getIR().getParams().stream()
+                .filter(ConstantPropagation::canHoldInt)
+                .forEach(param -> fact.update(param, Value.getNAC()));
+        return fact;
     }
 
     @Override
@@ -62,7 +91,7 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        fact.entries().forEach(entry -> target.update(entry.getKey(), meetValue(target.get(entry.getKey()), entry.getValue())));
+        target.meet(fact);
     }
 
     /**
@@ -89,11 +118,7 @@ public class ConstantPropagation extends
             newOut.update((Var) ((DefinitionStmt) stmt).getLValue(), evaluate(((DefinitionStmt) stmt).getRValue(), in));
         }
 
-        boolean result = !newOut.equals(out);
-        out.clear();
-        out.copyFrom(newOut);
-
-        return result;
+        return out.set(newOut);
     }
 
     /**
@@ -188,4 +213,41 @@ public class ConstantPropagation extends
         }
         return Value.getNAC();
     }
+
+    /**
+     * Decides whether given out edge of given statement may be executed,
+     * i.e., it is not pruned by a constant condition of an {@link If} or
+     * a constant variable of a {@link SwitchStmt}. A condition on variables
+     * that cannot hold int values (e.g., a comparison of references) is
+     * NAC, as such variables never appear in the facts.
+     *
+     * @param in IN fact of the statement
+     * @return true if the edge may be executed, otherwise false.
+     */
+    public static boolean isExecutable(Stmt stmt, Edge<Stmt> edge, CPFact in) {
+        if (stmt instanceof If ifStmt) {
+            ConditionExp cond = ifStmt.getCondition();
+            Value value = canHoldInt(cond.getOperand1()) && canHoldInt(cond.getOperand2()) ?
+                    evaluate(cond, in) : Value.getNAC();
+            return switch (edge.getKind()) {
+                case IF_TRUE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == 1);
+                case IF_FALSE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == 0);
+                default -> true;
+            };
+        }
+        if (stmt instanceof SwitchStmt switchStmt) {
+            Value value = in.get(switchStmt.getVar());
+            return switch (edge.getKind()) {
+                case SWITCH_CASE -> value.isNAC() ||
+                        (value.isConstant() && value.getConstant() == edge.getCaseValue());
+                case SWITCH_DEFAULT -> value.isNAC() ||
+                        (value.isConstant() &&
+                                !switchStmt.getCaseValues().contains(value.getConstant()));
+                default -> true;
+            };
+        }
+        return true;
+    }
 }
@@ -0,0 +1,325 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+/**
+ * Represents lattice values of interval analysis, i.e., non-empty
+ * ranges [lower, upper] of int values. The empty range (bottom) is
+ * not represented by this class, see {@link IntervalFact}.
+ * <p>
+ * As all values of int variables lie in the range of int, the bounds
+ * are always finite, and the unbounded interval is
+ * [{@link Integer#MIN_VALUE}, {@link Integer#MAX_VALUE}].
+ * Operations whose exact results may overflow return the unbounded
+ * interval, as Java int arithmetic wraps around.
+ */
+public final class Interval {
+
+    private static final Interval TOP =
+            new Interval(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private static final Interval BOOLEAN = new Interval(0, 1);
+
+    private final int lower;
+
+    private final int upper;
+
+    private Interval(int lower, int upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * @return the unbounded interval.
+     */
+    public static Interval getTop() {
+        return TOP;
+    }
+
+    /**
+     * @return the interval [lower, upper], or null if it is empty.
+     */
+    public static Interval of(long lower, long upper) {
+        if (lower > upper) {
+            return null;
+        }
+        if (lower < Integer.MIN_VALUE || upper > Integer.MAX_VALUE) {
+            return TOP;
+        }
+        return new Interval((int) lower, (int) upper);
+    }
+
+    /**
+     * @return the interval which contains only given constant.
+     */
+    public static Interval constant(int value) {
+        return new Interval(value, value);
+    }
+
+    /**
+     * @return the interval of all values of given type,
+     * which must be able to hold int values.
+     */
+    public static Interval ofType(Type type) {
+        if (type instanceof PrimitiveType primitiveType) {
+            return switch (primitiveType) {
+                case BOOLEAN -> BOOLEAN;
+                case BYTE -> new Interval(Byte.MIN_VALUE, Byte.MAX_VALUE);
+                case SHORT -> new Interval(Short.MIN_VALUE, Short.MAX_VALUE);
+                case CHAR -> new Interval(Character.MIN_VALUE, Character.MAX_VALUE);
+                default -> TOP;
+            };
+        }
+        return TOP;
+    }
+
+    public int getLower() {
+        return lower;
+    }
+
+    public int getUpper() {
+        return upper;
+    }
+
+    public boolean isConstant() {
+        return lower == upper;
+    }
+
+    public boolean isTop() {
+        return lower == Integer.MIN_VALUE && upper == Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return the smallest interval containing both intervals.
+     */
+    public Interval join(Interval other) {
+        return of(Math.min(lower, other.lower), Math.max(upper, other.upper));
+    }
+
+    /**
+     * @return the intersection of the two intervals, or null if it is empty.
+     */
+    public Interval intersect(Interval other) {
+        return of(Math.max(lower, other.lower), Math.min(upper, other.upper));
+    }
+
+    /**
+     * Standard widening, which pushes each bound growing from this
+     * (old) interval to the given (new) interval to infinity.
+     */
+    public Interval widen(Interval other) {
+        return of(other.lower < lower ? Integer.MIN_VALUE : lower,
+                other.upper > upper ? Integer.MAX_VALUE : upper);
+    }
+
+    /**
+     * Standard narrowing, which only refines the infinite bounds
+     * of this (old) interval with the given (new) interval.
+     */
+    public Interval narrow(Interval other) {
+        return of(lower == Integer.MIN_VALUE ? other.lower : lower,
+                upper == Integer.MAX_VALUE ? other.upper : upper);
+    }
+
+    /**
+     * Evaluates arithmetic operation on two intervals.
+     *
+     * @return the resulting interval, or null if the operation always
+     * throws exception, i.e., division by zero.
+     */
+    public static Interval evaluate(ArithmeticExp.Op op, Interval i1, Interval i2) {
+        return switch (op) {
+            case ADD -> of((long) i1.lower + i2.lower, (long) i1.upper + i2.upper);
+            case SUB -> of((long) i1.lower - i2.upper, (long) i1.upper - i2.lower);
+            case MUL -> {
+                long a = (long) i1.lower * i2.lower, b = (long) i1.lower * i2.upper;
+                long c = (long) i1.upper * i2.lower, d = (long) i1.upper * i2.upper;
+                yield of(Math.min(Math.min(a, b), Math.min(c, d)),
+                        Math.max(Math.max(a, b), Math.max(c, d)));
+            }
+            case DIV -> {
+                if (i2.lower == 0 && i2.upper == 0) {
+                    yield null;
+                }
+                if (i2.lower <= 0 && i2.upper >= 0) {
+                    // the divisor may be zero, -1 or 1, thus the quotient
+                    // is bounded by the dividend and its negation
+                    long max = Math.max(Math.abs((long) i1.lower), Math.abs((long) i1.upper));
+                    yield of(-max, max);
+                }
+                long a = (long) i1.lower / i2.lower, b = (long) i1.lower / i2.upper;
+                long c = (long) i1.upper / i2.lower, d = (long) i1.upper / i2.upper;
+                yield of(Math.min(Math.min(a, b), Math.min(c, d)),
+                        Math.max(Math.max(a, b), Math.max(c, d)));
+            }
+            case REM -> {
+                if (i2.lower == 0 && i2.upper == 0) {
+                    yield null;
+                }
+                if (i1.isConstant() && i2.isConstant()) {
+                    yield constant(i1.lower % i2.lower);
+                }
+                // |x % y| < |y|, and x % y has the sign of x
+                long max = Math.max(Math.abs((long) i2.lower), Math.abs((long) i2.upper)) - 1;
+                yield of(i1.lower < 0 ? -max : 0, i1.upper > 0 ? max : 0);
+            }
+        };
+    }
+
+    /**
+     * Evaluates shift operation on two intervals, which is precise
+     * only for constants.
+     */
+    public static Interval evaluate(ShiftExp.Op op, Interval i1, Interval i2) {
+        if (i1.isConstant() && i2.isConstant()) {
+            return constant(switch (op) {
+                case SHL -> i1.lower << i2.lower;
+                case SHR -> i1.lower >> i2.lower;
+                case USHR -> i1.lower >>> i2.lower;
+            });
+        }
+        if (op != ShiftExp.Op.SHL && i1.lower >= 0) {
+            // right shifts of non-negative values never increase them
+            return of(0, i1.upper);
+        }
+        return TOP;
+    }
+
+    /**
+     * Evaluates bitwise operation on two intervals, which is precise
+     * only for constants.
+     */
+    public static Interval evaluate(BitwiseExp.Op op, Interval i1, Interval i2) {
+        if (i1.isConstant() && i2.isConstant()) {
+            return constant(switch (op) {
+                case OR -> i1.lower | i2.lower;
+                case AND -> i1.lower & i2.lower;
+                case XOR -> i1.lower ^ i2.lower;
+            });
+        }
+        if (op == BitwiseExp.Op.AND && (i1.lower >= 0 || i2.lower >= 0)) {
+            // x & y is bounded by any non-negative operand
+            long upper = Math.min(i1.lower >= 0 ? i1.upper : Integer.MAX_VALUE,
+                    i2.lower >= 0 ? i2.upper : Integer.MAX_VALUE);
+            return of(0, upper);
+        }
+        return TOP;
+    }
+
+    /**
+     * Evaluates comparison on two intervals.
+     *
+     * @return [1, 1] if the comparison always holds, [0, 0] if it never
+     * holds, otherwise [0, 1].
+     */
+    public static Interval evaluate(ConditionExp.Op op, Interval i1, Interval i2) {
+        boolean mayHold = mayHold(op, i1, i2);
+        boolean mayFail = mayHold(negate(op), i1, i2);
+        return mayHold && mayFail ? BOOLEAN : constant(mayHold ? 1 : 0);
+    }
+
+    private static boolean mayHold(ConditionExp.Op op, Interval i1, Interval i2) {
+        return switch (op) {
+            case EQ -> i1.lower <= i2.upper && i2.lower <= i1.upper;
+            case NE -> !(i1.isConstant() && i2.isConstant() && i1.lower == i2.lower);
+            case LT -> i1.lower < i2.upper;
+            case LE -> i1.lower <= i2.upper;
+            case GT -> i1.upper > i2.lower;
+            case GE -> i1.upper >= i2.lower;
+        };
+    }
+
+    /**
+     * @return the operator of the negated comparison.
+     */
+    public static ConditionExp.Op negate(ConditionExp.Op op) {
+        return switch (op) {
+            case EQ -> ConditionExp.Op.NE;
+            case NE -> ConditionExp.Op.EQ;
+            case LT -> ConditionExp.Op.GE;
+            case LE -> ConditionExp.Op.GT;
+            case GT -> ConditionExp.Op.LE;
+            case GE -> ConditionExp.Op.LT;
+        };
+    }
+
+    /**
+     * Refines the first operand of a comparison which holds.
+     *
+     * @return the refined interval of the first operand,
+     * or null if the comparison cannot hold.
+     */
+    public static Interval refine(ConditionExp.Op op, Interval i1, Interval i2) {
+        return switch (op) {
+            case EQ -> i1.intersect(i2);
+            case NE -> {
+                if (!i2.isConstant()) {
+                    yield i1;
+                } else if (i1.lower == i2.lower) {
+                    yield of((long) i1.lower + 1, i1.upper);
+                } else if (i1.upper == i2.lower) {
+                    yield of(i1.lower, (long) i1.upper - 1);
+                } else {
+                    yield i1;
+                }
+            }
+            case LT -> of(i1.lower, Math.min(i1.upper, (long) i2.upper - 1));
+            case LE -> of(i1.lower, Math.min(i1.upper, i2.upper));
+            case GT -> of(Math.max(i1.lower, (long) i2.lower + 1), i1.upper);
+            case GE -> of(Math.max(i1.lower, i2.lower), i1.upper);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Interval that)) {
+            return false;
+        }
+        return lower == that.lower && upper == that.upper;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * lower + upper;
+    }
+
+    @Override
+    public String toString() {
+        if (isConstant()) {
+            return Integer.toString(lower);
+        }
+        return "[" + (lower == Integer.MIN_VALUE ? "-inf" : lower) + ", " +
+                (upper == Integer.MAX_VALUE ? "+inf" : upper) + "]";
+    }
+}
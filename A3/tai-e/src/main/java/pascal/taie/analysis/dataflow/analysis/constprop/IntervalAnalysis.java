@@ -0,0 +1,240 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Interval analysis, which computes the ranges of the values of int
+ * variables. Different from {@link ConstantPropagation}, it refines the
+ * ranges of the variables compared by {@link If}s on the branches, and
+ * thus can decide conditions on variables that are not constants,
+ * e.g., loop counters.
+ * <p>
+ * As the interval lattice has (nearly) infinite height, the analysis
+ * relies on widening at loop heads to terminate in a bounded number of
+ * iterations regardless of the trip counts of the loops, and on narrowing
+ * to recover the bounds implied by the loop conditions.
+ * <p>
+ * This analysis is not registered in the analysis plan, and is created
+ * by its clients (e.g., {@link pascal.taie.analysis.dataflow.analysis.DeadCodeDetection}).
+ */
+public class IntervalAnalysis extends
+        AbstractDataflowAnalysis<Stmt, IntervalFact> {
+
+    public static final String ID = "interval";
+
+    public IntervalAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    /**
+     * The parameters may hold any value of their types.
+     */
+    @Override
+    public IntervalFact newBoundaryFact(CFG<Stmt> cfg) {
+        IntervalFact fact = new IntervalFact();
+        fact.setReachable(true);
+        cfg.getIR().getParams().stream()
+                .filter(ConstantPropagation::canHoldInt)
+                .forEach(param -> fact.update(param, Interval.ofType(param.getType())));
+        return fact;
+    }
+
+    @Override
+    public IntervalFact newInitialFact() {
+        return new IntervalFact();
+    }
+
+    @Override
+    public void meetInto(IntervalFact fact, IntervalFact target) {
+        target.join(fact);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, IntervalFact in, IntervalFact out) {
+        IntervalFact newOut = in.copy();
+        if (in.isReachable()
+                && stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var var
+                && ConstantPropagation.canHoldInt(var)) {
+            newOut.update(var, evaluate(defStmt.getRValue(), var, in));
+        }
+        return out.set(newOut);
+    }
+
+    /**
+     * Evaluates the interval of given expression.
+     *
+     * @param exp the expression to be evaluated
+     * @param var the variable which is assigned the value of the expression
+     * @param in  IN fact of the statement
+     * @return the resulting interval, or null if the expression has no value.
+     */
+    private static Interval evaluate(Exp exp, Var var, IntervalFact in) {
+        if (exp instanceof IntLiteral literal) {
+            return Interval.constant(literal.getValue());
+        }
+        if (exp instanceof Var v) {
+            return in.get(v);
+        }
+        if (exp instanceof BinaryExp binaryExp
+                && ConstantPropagation.canHoldInt(binaryExp.getOperand1())
+                && ConstantPropagation.canHoldInt(binaryExp.getOperand2())) {
+            Interval i1 = in.get(binaryExp.getOperand1());
+            Interval i2 = in.get(binaryExp.getOperand2());
+            if (i1 == null || i2 == null) {
+                return null;
+            }
+            if (binaryExp instanceof ArithmeticExp arithmeticExp) {
+                return Interval.evaluate(arithmeticExp.getOperator(), i1, i2);
+            }
+            if (binaryExp instanceof ConditionExp conditionExp) {
+                return Interval.evaluate(conditionExp.getOperator(), i1, i2);
+            }
+            if (binaryExp instanceof ShiftExp shiftExp) {
+                return Interval.evaluate(shiftExp.getOperator(), i1, i2);
+            }
+            if (binaryExp instanceof BitwiseExp bitwiseExp) {
+                return Interval.evaluate(bitwiseExp.getOperator(), i1, i2);
+            }
+        }
+        // other expressions (e.g., invocations and field loads)
+        // may produce any value of the type of the variable
+        return Interval.ofType(var.getType());
+    }
+
+    /**
+     * @return the interval of the condition of given {@link If} in given
+     * fact, or null if the condition is not on int values or has no value
+     * (e.g., the {@link If} is unreachable).
+     */
+    public static Interval evaluateCondition(If ifStmt, IntervalFact fact) {
+        ConditionExp cond = ifStmt.getCondition();
+        if (!ConstantPropagation.canHoldInt(cond.getOperand1()) ||
+                !ConstantPropagation.canHoldInt(cond.getOperand2())) {
+            return null;
+        }
+        Interval i1 = fact.get(cond.getOperand1());
+        Interval i2 = fact.get(cond.getOperand2());
+        return i1 == null || i2 == null ? null :
+                Interval.evaluate(cond.getOperator(), i1, i2);
+    }
+
+    /**
+     * The branches of {@link If}s refine the compared variables.
+     */
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return edge.getKind() == Edge.Kind.IF_TRUE ||
+                edge.getKind() == Edge.Kind.IF_FALSE;
+    }
+
+    @Override
+    public IntervalFact transferEdge(Edge<Stmt> edge, IntervalFact nodeFact) {
+        ConditionExp cond = ((If) edge.getSource()).getCondition();
+        Var v1 = cond.getOperand1();
+        Var v2 = cond.getOperand2();
+        Interval i1 = nodeFact.get(v1);
+        Interval i2 = nodeFact.get(v2);
+        if (i1 == null || i2 == null || !ConstantPropagation.canHoldInt(v1)
+                || !ConstantPropagation.canHoldInt(v2)) {
+            return nodeFact;
+        }
+        ConditionExp.Op op = edge.getKind() == Edge.Kind.IF_TRUE ?
+                cond.getOperator() : Interval.negate(cond.getOperator());
+        Interval r1 = Interval.refine(op, i1, i2);
+        Interval r2 = Interval.refine(swap(op), i2, i1);
+        if (r1 == null || r2 == null) {
+            // the branch is never taken
+            return newInitialFact();
+        }
+        IntervalFact result = nodeFact.copy();
+        result.update(v1, r1);
+        result.update(v2, r2);
+        return result;
+    }
+
+    /**
+     * @return the operator op' such that {@code x op y} iff {@code y op' x}.
+     */
+    private static ConditionExp.Op swap(ConditionExp.Op op) {
+        return switch (op) {
+            case EQ, NE -> op;
+            case LT -> ConditionExp.Op.GT;
+            case LE -> ConditionExp.Op.GE;
+            case GT -> ConditionExp.Op.LT;
+            case GE -> ConditionExp.Op.LE;
+        };
+    }
+
+    @Override
+    public boolean needWidening() {
+        return true;
+    }
+
+    @Override
+    public IntervalFact widen(IntervalFact oldFact, IntervalFact newFact) {
+        IntervalFact result = oldFact.copy();
+        result.setReachable(oldFact.isReachable() || newFact.isReachable());
+        newFact.forEach((var, interval) -> {
+            Interval oldInterval = oldFact.get(var);
+            result.update(var, oldInterval == null ?
+                    interval : oldInterval.widen(interval));
+        });
+        return result;
+    }
+
+    @Override
+    public IntervalFact narrow(IntervalFact oldFact, IntervalFact newFact) {
+        IntervalFact result = new IntervalFact();
+        result.setReachable(newFact.isReachable());
+        newFact.forEach((var, interval) -> {
+            Interval oldInterval = oldFact.get(var);
+            if (oldInterval != null) {
+                result.update(var, oldInterval.narrow(interval));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Collections;
+
+/**
+ * Represents data facts of {@link IntervalAnalysis}, which maps
+ * variables to their intervals.
+ * <p>
+ * Similar to {@link CPFact}, absence of a variable represents that the
+ * variable is bottom, i.e., has no value (yet). Besides, each fact records
+ * whether the program point is reachable, so that the statements on
+ * infeasible branches do not contribute their definitions.
+ */
+public class IntervalFact extends MapFact<Var, Interval> {
+
+    private boolean reachable;
+
+    /**
+     * Constructs a new fact of unreachable program point.
+     */
+    public IntervalFact() {
+        super(Collections.emptyMap());
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    public void setReachable(boolean reachable) {
+        this.reachable = reachable;
+    }
+
+    /**
+     * Updates the interval of given variable, where null (bottom)
+     * removes the variable from this fact.
+     */
+    @Override
+    public boolean update(Var key, Interval value) {
+        if (value == null) {
+            return remove(key) != null;
+        }
+        return super.update(key, value);
+    }
+
+    /**
+     * Joins given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean join(IntervalFact fact) {
+        if (!fact.reachable) {
+            return false;
+        }
+        if (!reachable) {
+            return set(fact);
+        }
+        boolean changed = false;
+        for (Var var : fact.keySet()) {
+            Interval interval = get(var);
+            changed |= update(var, interval == null ?
+                    fact.get(var) : interval.join(fact.get(var)));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean set(MapFact<Var, Interval> fact) {
+        boolean changed = false;
+        if (fact instanceof IntervalFact intervalFact) {
+            changed = reachable != intervalFact.reachable;
+            reachable = intervalFact.reachable;
+        }
+        return super.set(fact) || changed;
+    }
+
+    @Override
+    public IntervalFact copy() {
+        IntervalFact copy = new IntervalFact();
+        copy.set(this);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntervalFact that && super.equals(that)
+                && reachable == that.reachable;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return reachable ? super.toString() : "unreachable";
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+/**
+ * A {@link DataflowResult} which stores the data-flow facts in arrays
+ * indexed by {@link Indexable#getIndex()} of the nodes, e.g., the
+ * {@link pascal.taie.ir.stmt.Stmt}s of a CFG, instead of the maps of
+ * its superclass, so that the facts are accessed without hashing.
+ * <p>
+ * The indexes of the nodes must be unique, non-negative and less than
+ * the capacity given at construction. Note that this does not hold
+ * for {@code Stmt}s of different methods, thus a result of this class
+ * only holds the facts of the nodes of a single method. To tell these
+ * nodes from the nodes of other methods which have the same indexes,
+ * the nodes are stored along with their facts and compared by identity.
+ *
+ * @param <Node> type of nodes, which must be {@link Indexable}
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * Nodes whose facts are stored, indexed by their indexes.
+     */
+    private final Object[] nodes;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    /**
+     * @param capacity the maximum index of the nodes plus one
+     */
+    public IndexedDataflowResult(int capacity) {
+        nodes = new Object[capacity];
+        inFacts = new Object[capacity];
+        outFacts = new Object[capacity];
+    }
+
+    /**
+     * @return the index of given node if its facts are stored in this
+     * result, otherwise -1.
+     */
+    private int indexOf(Node node) {
+        int i = ((Indexable) node).getIndex();
+        return 0 <= i && i < nodes.length && nodes[i] == node ? i : -1;
+    }
+
+    /**
+     * @return the index where the facts of given node are stored.
+     * @throws IllegalArgumentException if the index of given node is out
+     *                                  of range, or is taken by another node.
+     */
+    private int slotOf(Node node) {
+        int i = ((Indexable) node).getIndex();
+        if (i < 0 || i >= nodes.length) {
+            throw new IllegalArgumentException("Index of " + node +
+                    " is out of range [0, " + nodes.length + ")");
+        }
+        if (nodes[i] == null) {
+            nodes[i] = node;
+        } else if (nodes[i] != node) {
+            throw new IllegalArgumentException("Index of " + node +
+                    " is taken by " + nodes[i]);
+        }
+        return i;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        int i = indexOf(node);
+        return i != -1 ? (Fact) inFacts[i] : null;
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        inFacts[slotOf(node)] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        int i = indexOf(node);
+        return i != -1 ? (Fact) outFacts[i] : null;
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts[slotOf(node)] = fact;
+    }
+}
@@ -23,16 +23,9 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
-
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+import pascal.taie.analysis.graph.cfg.Edge;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -40,34 +33,58 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    /**
+     * For analyses which need widening, the facts of the loop heads are
+     * widened until the fixed point is reached, and then all nodes are
+     * solved once more with narrowing at the loop heads.
+     */
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        Set<Node> worklist = new HashSet<>() {{ addAll(cfg.getNodes()); }};
+        PriorityWorkList<Node> worklist = new PriorityWorkList<>(cfg, true);
+        worklist.addAllNodes();
+        solveForward(cfg, result, worklist, false);
+        if (analysis.needWidening()) {
+            worklist.addAllNodes();
+            solveForward(cfg, result, worklist, true);
+        }
+    }
+
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              PriorityWorkList<Node> worklist, boolean narrowing) {
         while (!worklist.isEmpty()) {
-            (new HashSet<Node>(worklist)).forEach(node -> {
-                worklist.remove(node);
-                Fact in = this.analysis.newInitialFact();
-                if (node == cfg.getEntry()) {
-                    cfg.getIR().getParams().stream()
-                            .filter(ConstantPropagation::canHoldInt)
-                            .forEach(param -> ((CPFact) in).update(param, Value.getNAC()));
+            Node node = worklist.poll();
+            Fact in = node == cfg.getEntry() ?
+                    this.analysis.newBoundaryFact(cfg) :
+                    this.analysis.newInitialFact();
+            for (Edge<Node> edge : cfg.getInEdgesOf(node)) {
+                Fact predOut = result.getOutFact(edge.getSource());
+                if (this.analysis.needTransferEdge(edge)) {
+                    predOut = this.analysis.transferEdge(edge, predOut);
                 }
-                cfg.getPredsOf(node).forEach(pred -> this.analysis.meetInto(result.getOutFact(pred), in));
-                result.setInFact(node, in);
-                if (this.analysis.transferNode(node, in, result.getOutFact(node))) {
-                    worklist.addAll(cfg.getSuccsOf(node));
-                }
-            });
+                this.analysis.meetInto(predOut, in);
+            }
+            Fact oldIn = result.getInFact(node);
+            if (oldIn != null && this.analysis.needWidening()
+                    && worklist.isLoopHead(node)) {
+                in = narrowing ?
+                        this.analysis.narrow(oldIn, in) :
+                        this.analysis.widen(oldIn, in);
+            }
+            result.setInFact(node, in);
+            if (this.analysis.transferNode(node, in, result.getOutFact(node))) {
+                worklist.addAll(cfg.getSuccsOf(node));
+            }
         }
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        var workList = new LinkedList<>(cfg.getNodes());
+        var workList = new PriorityWorkList<>(cfg, false);
+        workList.addAllNodes();
         while (!workList.isEmpty()){
-            var node = workList.pop();
+            var node = workList.poll();
             var outFact = analysis.newInitialFact();
             var inFact = result.getInFact(node);
 
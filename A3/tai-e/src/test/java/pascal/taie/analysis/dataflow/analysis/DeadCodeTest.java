@@ -27,6 +27,11 @@ import pascal.taie.analysis.Tests;
 
 public class DeadCodeTest {
 
+    private static final String[] CASES = {
+            "ControlFlowUnreachable", "UnreachableIfBranch",
+            "UnreachableSwitchBranch", "DeadAssignment", "Loops"
+    };
+
     void testDCD(String inputClass) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
@@ -34,6 +39,13 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    void testDCD(String inputClass, String options) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, options,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false");
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +70,53 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    /**
+     * Interval analysis only decides the conditions which constant
+     * propagation does not, thus none of these cases changes with it.
+     */
+    @Test
+    public void testInterval() {
+        for (String inputClass : CASES) {
+            testDCD(inputClass, "interval:true");
+        }
+    }
+
+    /**
+     * The branch in the loop is only decided by the interval of the
+     * loop counter, which constant propagation takes as NAC.
+     */
+    @Test
+    public void testIntervalLoop() {
+        testDCD("IntervalLoop", "interval:true");
+    }
+
+    /**
+     * Fused mode requires neither constprop nor livevar, thus they are
+     * not added to the analyses to be executed.
+     */
+    void testFusedDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "fused:true");
+    }
+
+    /**
+     * None of these cases has dead code reaching uses only in unreachable
+     * code, thus fused mode finds the same dead code.
+     */
+    @Test
+    public void testFused() {
+        for (String inputClass : CASES) {
+            testFusedDCD(inputClass);
+        }
+    }
+
+    /**
+     * In fused mode, the use in the unreachable branch does not keep
+     * the assignment before the branch alive.
+     */
+    @Test
+    public void testFusedUnreachableUse() {
+        testFusedDCD("UnreachableUse");
+    }
 }
@@ -0,0 +1,13 @@
+class IntervalLoop {
+
+    void boundedLoop() {
+        for (int i = 0; i < 10; i++) {
+            if (i >= 10) {
+                dead(); // unreachable branch
+            }
+        }
+    }
+
+    void dead() {
+    }
+}
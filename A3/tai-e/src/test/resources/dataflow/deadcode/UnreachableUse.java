@@ -0,0 +1,11 @@
+class UnreachableUse {
+
+    int unreachableUse() {
+        int x = 10;
+        int y = x * 2; // only used in unreachable branch
+        if (x > 20) {
+            return y; // unreachable branch
+        }
+        return x;
+    }
+}
@@ -25,14 +25,21 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.DefaultLazyICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -51,6 +58,13 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
+        if (isLazyICFG() &&
+                (getOptions().getBooleanOrDefault("method-granular", false) ||
+                        getParallelism() > 1)) {
+            throw new ConfigException("Option lazy-icfg cannot be used with" +
+                    " method-granular or parallelism > 1, which need all" +
+                    " nodes of the ICFG up front");
+        }
     }
 
     /**
@@ -119,11 +133,41 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg = getICFG();
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = new InterSolver<>(this, icfg,
+                getOptions().getBooleanOrDefault("method-granular", false),
+                getParallelism());
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
     }
+
+    /**
+     * @return the ICFG to be analyzed. If option {@code lazy-icfg} is set,
+     * the ICFG is built on demand while the solver reaches the methods,
+     * see {@link LazyICFG}, and {@link ICFGBuilder} is not required to run
+     * before the analysis; otherwise, the ICFG built by {@link ICFGBuilder}
+     * is returned.
+     */
+    @SuppressWarnings("unchecked")
+    protected ICFG<Method, Node> getICFG() {
+        if (isLazyICFG()) {
+            CallGraph<Stmt, JMethod> callGraph =
+                    World.get().getResult(CallGraphBuilder.ID);
+            return (ICFG<Method, Node>) new DefaultLazyICFG(callGraph);
+        }
+        return World.get().getResult(ICFGBuilder.ID);
+    }
+
+    /**
+     * @return whether option {@code lazy-icfg} is set, see {@link #getICFG()}.
+     */
+    protected boolean isLazyICFG() {
+        return getOptions().getBooleanOrDefault("lazy-icfg", false);
+    }
+
+    private int getParallelism() {
+        return getOptions().get("parallelism") instanceof Integer p ? p : 1;
+    }
 }
@@ -0,0 +1,428 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
+
+/**
+ * Demand-driven interprocedural constant propagation for int values.
+ * <p>
+ * Instead of solving the whole ICFG, this class answers point queries,
+ * i.e., the value of a variable at a statement, by exploring the ICFG
+ * backwards from the queried statement. A query depends on:
+ * <ul>
+ *     <li>the definitions of the variable that reach the statement,
+ *     which in turn depend on the variables used by their right-hand
+ *     sides;</li>
+ *     <li>the return values of the callees, if the variable is defined
+ *     by the result of a call;</li>
+ *     <li>the arguments at the call sites of the containing method,
+ *     if the variable is a parameter that reaches the statement.</li>
+ * </ul>
+ * The sub-queries explored for a query are solved together to their
+ * fixed point, and their values are cached, so that subsequent queries
+ * which share them only explore the part of the program that has not
+ * been explored before.
+ * <p>
+ * The reaching definitions of a variable, which a query of the variable
+ * depends on, are computed for all statements of its method on the first
+ * query, and shared by the later queries of the variable.
+ * <p>
+ * The answers are the same as the facts computed by {@link InterSolver}
+ * for {@link InterConstantPropagation} on the same ICFG, and option
+ * {@code demand-driven} of {@link InterConstantPropagation} exposes them
+ * as its result, see {@link #getResult()}. This class is not thread-safe.
+ */
+public class DemandDrivenConstantPropagation {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    private final Set<JMethod> entryMethods;
+
+    /**
+     * Values of the solved queries.
+     */
+    private final Map<Query, Value> values = Maps.newMap();
+
+    /**
+     * Reaching definitions of the queried variables at the statements
+     * of their methods, see {@link #getReachingDefs(Var, Stmt)}.
+     */
+    private final Map<Var, Map<Stmt, List<Query>>> reachingDefs = Maps.newMap();
+
+    public DemandDrivenConstantPropagation(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        this.cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the value of given variable in the OUT fact of given statement.
+     */
+    public Value getValue(Stmt stmt, Var var) {
+        if (!canHoldInt(var)) {
+            return Value.getUndef();
+        }
+        // the result of a call is assigned on the return edges,
+        // so the OUT fact of the call site still holds the old value
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                !(stmt instanceof Invoke) && def.getLValue() == var) {
+            return solve(new DefValue(stmt));
+        }
+        return solve(new VarValue(var, stmt));
+    }
+
+    /**
+     * @return the value of given variable in the IN fact of given statement.
+     */
+    public Value getInValue(Stmt stmt, Var var) {
+        return canHoldInt(var) ? solve(new VarValue(var, stmt)) : Value.getUndef();
+    }
+
+    /**
+     * @return a view of the answers as data-flow facts of the statements,
+     * which are queried when the facts are requested.
+     */
+    public NodeResult<Stmt, CPFact> getResult() {
+        return new Result();
+    }
+
+    /**
+     * Clears the cached answers, e.g., after the program is modified.
+     */
+    public void clear() {
+        values.clear();
+        reachingDefs.clear();
+    }
+
+    private Value solve(Query query) {
+        Value value = values.get(query);
+        if (value != null) {
+            return value;
+        }
+        // explore the sub-queries that have not been solved yet
+        Map<Query, List<Query>> deps = new LinkedHashMap<>();
+        MultiMap<Query, Query> users = Maps.newMultiMap();
+        Deque<Query> stack = new ArrayDeque<>();
+        stack.push(query);
+        deps.put(query, query.getDependencies(this));
+        while (!stack.isEmpty()) {
+            Query q = stack.pop();
+            for (Query dep : deps.get(q)) {
+                if (!values.containsKey(dep)) {
+                    users.put(dep, q);
+                    if (!deps.containsKey(dep)) {
+                        deps.put(dep, dep.getDependencies(this));
+                        stack.push(dep);
+                    }
+                }
+            }
+        }
+        // the explored sub-queries only depend on each other and on solved
+        // queries, so their fixed point is the final answer of all of them
+        Map<Query, Value> current = Maps.newMap();
+        deps.keySet().forEach(q -> current.put(q, Value.getUndef()));
+        // start from the sub-queries explored last, which are
+        // mostly the dependencies of the ones explored before them
+        List<Query> explored = new ArrayList<>(deps.keySet());
+        Collections.reverse(explored);
+        Queue<Query> workList = new SetQueue<>();
+        workList.addAll(explored);
+        while (!workList.isEmpty()) {
+            Query q = workList.poll();
+            Value newValue = q.compute(this, deps.get(q), dep -> {
+                Value v = values.get(dep);
+                return v != null ? v : current.get(dep);
+            });
+            if (!newValue.equals(current.put(q, newValue))) {
+                workList.addAll(users.get(q));
+            }
+        }
+        values.putAll(current);
+        return current.get(query);
+    }
+
+    /**
+     * @return the queries for the definitions of {@code var} that reach
+     * {@code stmt}, and for the parameter value if {@code var} is a
+     * parameter and the method entry is reached without passing any
+     * definition of it.
+     */
+    private List<Query> getReachingDefs(Var var, Stmt stmt) {
+        return reachingDefs
+                .computeIfAbsent(var, v -> computeReachingDefs(
+                        v, icfg.getContainingMethodOf(stmt)))
+                .getOrDefault(stmt, List.of());
+    }
+
+    /**
+     * Computes the reaching definitions of {@code var} at all statements
+     * of {@code method} in one pass, so that the queries of {@code var}
+     * at different statements do not search the method again.
+     */
+    private Map<Stmt, List<Query>> computeReachingDefs(Var var, JMethod method) {
+        CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+        Stmt entry = icfg.getEntryOf(method);
+        int i = method.getIR().getParams().indexOf(var);
+        Map<Stmt, Set<Query>> inDefs = Maps.newMap();
+        Queue<Stmt> workList = new SetQueue<>();
+        workList.addAll(cfg.getNodes());
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            Set<Query> defs = Sets.newHybridSet();
+            if (node == entry && i != -1) {
+                defs.add(new ParamValue(method, i));
+            }
+            for (ICFGEdge<Stmt> edge : icfg.getInEdgesOf(node)) {
+                if (isIntraEdge(edge)) {
+                    Stmt pred = edge.getSource();
+                    if (defines(pred, var)) {
+                        defs.add(new DefValue(pred));
+                    } else {
+                        defs.addAll(inDefs.getOrDefault(pred, Set.of()));
+                    }
+                }
+            }
+            if (!defs.equals(inDefs.getOrDefault(node, Set.of()))) {
+                inDefs.put(node, defs);
+                for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(node)) {
+                    if (isIntraEdge(edge)) {
+                        workList.add(edge.getTarget());
+                    }
+                }
+            }
+        }
+        Map<Stmt, List<Query>> result = Maps.newMap(inDefs.size());
+        inDefs.forEach((node, defs) -> result.put(node, List.copyOf(defs)));
+        return result;
+    }
+
+    /**
+     * Call and return edges are handled by parameter and return values.
+     */
+    private static boolean isIntraEdge(ICFGEdge<Stmt> edge) {
+        return edge instanceof NormalEdge<Stmt> ||
+                edge instanceof CallToReturnEdge<Stmt>;
+    }
+
+    private static boolean defines(Stmt stmt, Var var) {
+        return stmt instanceof DefinitionStmt<?, ?> def && def.getLValue() == var;
+    }
+
+    private Value meetAll(List<Query> deps, Lookup lookup) {
+        Value value = Value.getUndef();
+        for (Query dep : deps) {
+            value = cp.meetValue(value, lookup.get(dep));
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Value get(Query query);
+    }
+
+    /**
+     * A demanded value and how to compute it from other demanded values.
+     */
+    private sealed interface Query {
+
+        List<Query> getDependencies(DemandDrivenConstantPropagation solver);
+
+        Value compute(DemandDrivenConstantPropagation solver,
+                      List<Query> deps, Lookup lookup);
+    }
+
+    /**
+     * Value of {@code var} in the IN fact of {@code stmt}.
+     */
+    private record VarValue(Var var, Stmt stmt) implements Query {
+
+        @Override
+        public List<Query> getDependencies(DemandDrivenConstantPropagation solver) {
+            return solver.getReachingDefs(var, stmt);
+        }
+
+        @Override
+        public Value compute(DemandDrivenConstantPropagation solver,
+                             List<Query> deps, Lookup lookup) {
+            return solver.meetAll(deps, lookup);
+        }
+    }
+
+    /**
+     * Value assigned by definition statement {@code stmt}.
+     */
+    private record DefValue(Stmt stmt) implements Query {
+
+        @Override
+        public List<Query> getDependencies(DemandDrivenConstantPropagation solver) {
+            List<Query> deps = new ArrayList<>();
+            if (stmt instanceof Invoke) {
+                solver.icfg.getCalleesOf(stmt)
+                        .forEach(callee -> deps.add(new ReturnValue(callee)));
+            } else {
+                RValue rvalue = ((DefinitionStmt<?, ?>) stmt).getRValue();
+                if (rvalue instanceof Var var && canHoldInt(var)) {
+                    deps.add(new VarValue(var, stmt));
+                }
+                for (RValue use : rvalue.getUses()) {
+                    if (use instanceof Var var && canHoldInt(var)) {
+                        deps.add(new VarValue(var, stmt));
+                    }
+                }
+            }
+            return deps;
+        }
+
+        @Override
+        public Value compute(DemandDrivenConstantPropagation solver,
+                             List<Query> deps, Lookup lookup) {
+            if (stmt instanceof Invoke) {
+                return solver.meetAll(deps, lookup);
+            }
+            CPFact in = new CPFact();
+            deps.forEach(dep -> in.update(((VarValue) dep).var(), lookup.get(dep)));
+            LValue lvalue = ((DefinitionStmt<?, ?>) stmt).getLValue();
+            return canHoldInt((Var) lvalue) ?
+                    ConstantPropagation.evaluate(
+                            ((DefinitionStmt<?, ?>) stmt).getRValue(), in) :
+                    Value.getUndef();
+        }
+    }
+
+    /**
+     * Value of the {@code i}-th parameter of {@code method} at its entry.
+     */
+    private record ParamValue(JMethod method, int i) implements Query {
+
+        @Override
+        public List<Query> getDependencies(DemandDrivenConstantPropagation solver) {
+            List<Query> deps = new ArrayList<>();
+            if (canHoldInt(method.getIR().getParam(i))) {
+                for (Stmt callSite : solver.icfg.getCallersOf(method)) {
+                    Var arg = ((Invoke) callSite).getInvokeExp().getArg(i);
+                    deps.add(new VarValue(arg, callSite));
+                }
+            }
+            return deps;
+        }
+
+        @Override
+        public Value compute(DemandDrivenConstantPropagation solver,
+                             List<Query> deps, Lookup lookup) {
+            Value value = solver.meetAll(deps, lookup);
+            if (solver.entryMethods.contains(method)) {
+                IR ir = method.getIR();
+                Value boundary = solver.cp
+                        .newBoundaryFact(ir.getResult(CFGBuilder.ID))
+                        .get(ir.getParam(i));
+                value = solver.cp.meetValue(value, boundary);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Value of the return variables of {@code method} at its exit.
+     */
+    private record ReturnValue(JMethod method) implements Query {
+
+        @Override
+        public List<Query> getDependencies(DemandDrivenConstantPropagation solver) {
+            Stmt exit = solver.icfg.getExitOf(method);
+            List<Query> deps = new ArrayList<>();
+            method.getIR().getReturnVars()
+                    .forEach(var -> deps.add(new VarValue(var, exit)));
+            return deps;
+        }
+
+        @Override
+        public Value compute(DemandDrivenConstantPropagation solver,
+                             List<Query> deps, Lookup lookup) {
+            return solver.meetAll(deps, lookup);
+        }
+    }
+
+    /**
+     * The view of the answers as data-flow facts of the statements.
+     */
+    private class Result implements NodeResult<Stmt, CPFact> {
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            return getFact(stmt, DemandDrivenConstantPropagation.this::getInValue);
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            return getFact(stmt, DemandDrivenConstantPropagation.this::getValue);
+        }
+
+        private CPFact getFact(Stmt stmt, BiFunction<Stmt, Var, Value> query) {
+            CPFact fact = new CPFact();
+            icfg.getContainingMethodOf(stmt).getIR().getVars()
+                    .forEach(var -> fact.update(var, query.apply(stmt, var)));
+            return fact;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
@@ -51,9 +52,30 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Whether to answer the facts by {@link DemandDrivenConstantPropagation},
+     * i.e., each fact is computed by queries when it is requested.
+     */
+    private final boolean demandDriven;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        demandDriven = getOptions().getBooleanOrDefault("demand-driven", false);
+        if (demandDriven && isLazyICFG()) {
+            // demand-driven queries explore the ICFG backwards
+            // from arbitrary statements
+            throw new ConfigException("Option lazy-icfg cannot be used with" +
+                    " demand-driven");
+        }
+    }
+
+    @Override
+    public Object analyze() {
+        if (demandDriven) {
+            return new DemandDrivenConstantPropagation(getICFG()).getResult();
+        }
+        return super.analyze();
     }
 
     @Override
@@ -24,12 +24,21 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -47,16 +56,45 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * Whether to schedule the work list by methods, see {@link MethodWorkList}.
+     */
+    private final boolean methodGranular;
+
+    /**
+     * Number of threads used to solve the strongly connected components
+     * of the call graph, given by option {@code parallelism}. If it is 1
+     * (the default), the analysis is solved sequentially.
+     */
+    private final int parallelism;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, false, 1);
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, boolean methodGranular,
+                int parallelism) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.methodGranular = methodGranular;
+        this.parallelism = parallelism;
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
+        if (parallelism == 1 && !methodGranular &&
+                icfg instanceof LazyICFG<Method, Node> lazyICFG) {
+            doSolveLazily(lazyICFG);
+            return result;
+        }
         initialize();
-        doSolve();
+        if (parallelism > 1) {
+            doSolveInParallel();
+        } else {
+            doSolve();
+        }
         return result;
     }
 
@@ -90,8 +128,10 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        // 创建一个工作列表
-        workList = new LinkedList<>();
+        // 创建一个工作列表；按方法调度时，逐个方法地处理其中的节点
+        workList = methodGranular ?
+                new MethodWorkList<>(icfg, analysis.isForward()) :
+                new LinkedList<>();
 
         // 将 ICFG 中的所有节点添加到工作列表中
         for (Node node : icfg) {
@@ -121,4 +161,188 @@ class InterSolver<Method, Node, Fact> {
             }
         }
     }
+
+    /**
+     * Solves the analysis on a {@link LazyICFG}. Instead of initializing
+     * all nodes up front, the methods are reached forward from the entry
+     * methods along the out-edges of the analyzed nodes, and the nodes of
+     * a method are initialized and added to the work list when the method
+     * is first reached. A node propagates along its out-edges when it is
+     * analyzed for the first time even if its OUT fact does not change,
+     * thus all methods reachable from the entry methods are reached, and
+     * every edge is read by its target after its source is analyzed, as
+     * done by {@link #doSolve()}. The in-edges from the methods that have
+     * not been reached yet are skipped, as their sources are not analyzed.
+     * <p>
+     * When a method has no pending nodes in the work list, its edges are
+     * released, and they are rebuilt by the ICFG if its nodes are analyzed
+     * again.
+     */
+    private void doSolveLazily(LazyICFG<Method, Node> lazyICFG) {
+        workList = new SetQueue<>();
+        Set<Method> reached = Sets.newSet();
+        Set<Node> analyzed = Sets.newSet();
+        Map<Method, Integer> pending = Maps.newMap();
+        icfg.entryMethods().forEach(method ->
+                reach(lazyICFG, method, reached, pending));
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            result.setInFact(entry, analysis.newBoundaryFact(entry));
+            result.setOutFact(entry, analysis.newBoundaryFact(entry));
+        });
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Method method = icfg.getContainingMethodOf(node);
+            for (ICFGEdge<Node> inEdge : icfg.getInEdgesOf(node)) {
+                Fact sourceOut = result.getOutFact(inEdge.getSource());
+                if (sourceOut != null) {
+                    analysis.meetInto(analysis.transferEdge(inEdge, sourceOut),
+                            result.getInFact(node));
+                }
+            }
+            boolean changed = analysis.transferNode(node,
+                    result.getInFact(node), result.getOutFact(node));
+            if (analyzed.add(node) || changed) {
+                for (ICFGEdge<Node> outEdge : icfg.getOutEdgesOf(node)) {
+                    Node target = outEdge.getTarget();
+                    Method targetMethod = icfg.getContainingMethodOf(target);
+                    reach(lazyICFG, targetMethod, reached, pending);
+                    if (workList.add(target)) {
+                        pending.merge(targetMethod, 1, Integer::sum);
+                    }
+                }
+            }
+            if (pending.merge(method, -1, Integer::sum) == 0) {
+                lazyICFG.release(method);
+            }
+        }
+    }
+
+    /**
+     * Initializes the facts of the nodes of given method and adds them
+     * to the work list, if the method has not been reached before.
+     */
+    private void reach(LazyICFG<Method, Node> lazyICFG, Method method,
+                       Set<Method> reached, Map<Method, Integer> pending) {
+        if (reached.add(method)) {
+            Set<Node> nodes = lazyICFG.getNodesOf(method);
+            for (Node node : nodes) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+                workList.add(node);
+            }
+            pending.merge(method, nodes.size(), Integer::sum);
+        }
+    }
+
+    /**
+     * Solves the analysis in rounds. In each round, the strongly connected
+     * components (SCCs) of the call graph that have pending nodes are
+     * solved concurrently, one task per SCC, and each task only modifies
+     * the facts of the nodes in its SCC.
+     * <p>
+     * The SCCs interact only through call and return edges. When the OUT
+     * fact of a node changes, the facts flowing along its edges to other
+     * SCCs are met into the inboxes of the target nodes, which are
+     * concurrent, and the targets are scheduled for the next round.
+     * A node takes (and removes) the fact in its inbox when it is
+     * processed, instead of reading the OUT facts of its predecessors
+     * in other SCCs. Since the facts only change monotonically, this
+     * reaches the same fixed point as {@link #doSolve()}.
+     */
+    private void doSolveInParallel() {
+        List<Method> methods = icfg.getNodes()
+                .stream()
+                .map(icfg::getContainingMethodOf)
+                .distinct()
+                .toList();
+        List<List<Method>> sccs = MethodWorkList.getSCCs(icfg, methods);
+        Map<Method, Integer> methodToSCC = Maps.newMap();
+        for (int i = 0; i < sccs.size(); ++i) {
+            for (Method method : sccs.get(i)) {
+                methodToSCC.put(method, i);
+            }
+        }
+        // 每个节点所属的强连通分量，以及每个强连通分量的工作列表
+        Map<Node, Integer> nodeToSCC = Maps.newMap();
+        List<Queue<Node>> workLists = new ArrayList<>(sccs.size());
+        sccs.forEach(scc -> workLists.add(new SetQueue<>()));
+        for (Node node : icfg) {
+            int scc = methodToSCC.get(icfg.getContainingMethodOf(node));
+            nodeToSCC.put(node, scc);
+            workLists.get(scc).add(node);
+        }
+        Map<Node, Fact> inboxes = new ConcurrentHashMap<>();
+        // 初始事实也需要沿跨分量的边传递一次
+        for (Node node : icfg) {
+            sendToOtherSCCs(node, nodeToSCC, inboxes);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (true) {
+                // 将收到跨分量事实的节点加入其所属分量的工作列表
+                inboxes.keySet().forEach(node ->
+                        workLists.get(nodeToSCC.get(node)).add(node));
+                List<Queue<Node>> active = workLists.stream()
+                        .filter(workList -> !workList.isEmpty())
+                        .toList();
+                if (active.isEmpty()) {
+                    break;
+                }
+                pool.submit(() -> active.parallelStream().forEach(workList ->
+                        solveSCC(workList, nodeToSCC, inboxes))).join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Drains the work list of an SCC.
+     */
+    private void solveSCC(Queue<Node> workList, Map<Node, Integer> nodeToSCC,
+                          Map<Node, Fact> inboxes) {
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            int scc = nodeToSCC.get(node);
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> inEdge : icfg.getInEdgesOf(node)) {
+                if (nodeToSCC.get(inEdge.getSource()) == scc) {
+                    analysis.meetInto(analysis.transferEdge(inEdge,
+                            result.getOutFact(inEdge.getSource())), in);
+                }
+            }
+            Fact received = inboxes.remove(node);
+            if (received != null) {
+                analysis.meetInto(received, in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (ICFGEdge<Node> outEdge : icfg.getOutEdgesOf(node)) {
+                    if (nodeToSCC.get(outEdge.getTarget()) == scc) {
+                        workList.add(outEdge.getTarget());
+                    }
+                }
+                sendToOtherSCCs(node, nodeToSCC, inboxes);
+            }
+        }
+    }
+
+    /**
+     * Meets the facts flowing out of given node to the nodes in other
+     * SCCs into the inboxes of these nodes.
+     */
+    private void sendToOtherSCCs(Node node, Map<Node, Integer> nodeToSCC,
+                                 Map<Node, Fact> inboxes) {
+        int scc = nodeToSCC.get(node);
+        for (ICFGEdge<Node> outEdge : icfg.getOutEdgesOf(node)) {
+            Node target = outEdge.getTarget();
+            if (nodeToSCC.get(target) != scc) {
+                Fact fact = analysis.transferEdge(outEdge, result.getOutFact(node));
+                inboxes.merge(target, fact, (inbox, f) -> {
+                    analysis.meetInto(f, inbox);
+                    return inbox;
+                });
+            }
+        }
+    }
 }
@@ -0,0 +1,265 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Work list of ICFG nodes that is scheduled by methods: it keeps a local
+ * work list for each method, and {@link #poll()} drains the local work
+ * list of the current method before switching to another method.
+ * <p>
+ * The methods are ordered by the strongly connected components of the
+ * call graph, i.e., callers before callees (top-down) for forward
+ * analysis, and callees before callers (bottom-up) for backward analysis.
+ * The nodes of each method are ordered by reverse postorder of its
+ * intra-procedural edges from the method entry for forward analysis,
+ * and by the reverse of that order for backward analysis, so that the
+ * nodes are visited along the flow of the analysis. When switching, the
+ * method of the highest order with non-empty local work list is picked,
+ * and in the local work list, the node of the highest order is polled.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ */
+class MethodWorkList<Method, Node> extends AbstractQueue<Node> {
+
+    /**
+     * Nodes of each method (indexed by the order of method), in reverse
+     * postorder if top-down, or in the reverse of that order otherwise.
+     */
+    private final List<List<Node>> nodes;
+
+    /**
+     * Map from each node to the order of its method.
+     */
+    private final Map<Node, Integer> methodIndexes;
+
+    /**
+     * Map from each node to its order in its method.
+     */
+    private final Map<Node, Integer> nodeIndexes;
+
+    /**
+     * Local work lists of the methods (indexed by the order of method).
+     */
+    private final BitSet[] localWorkLists;
+
+    /**
+     * Methods whose local work lists are not empty.
+     */
+    private final BitSet methodWorkList;
+
+    /**
+     * Order of the method whose local work list is being drained.
+     */
+    private int current = -1;
+
+    private int size = 0;
+
+    MethodWorkList(ICFG<Method, Node> icfg, boolean topDown) {
+        Map<Method, List<Node>> methodNodes = new LinkedHashMap<>();
+        for (Node node : icfg) {
+            methodNodes.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    m -> new ArrayList<>()).add(node);
+        }
+        List<Method> methods = sortMethods(icfg, methodNodes.keySet());
+        if (!topDown) {
+            Collections.reverse(methods);
+        }
+        nodes = new ArrayList<>(methods.size());
+        methodIndexes = Maps.newMap();
+        nodeIndexes = Maps.newMap();
+        for (Method method : methods) {
+            List<Node> order = reversePostorder(icfg, method, methodNodes.get(method));
+            if (!topDown) {
+                Collections.reverse(order);
+            }
+            for (int i = 0; i < order.size(); ++i) {
+                methodIndexes.put(order.get(i), nodes.size());
+                nodeIndexes.put(order.get(i), i);
+            }
+            nodes.add(order);
+        }
+        localWorkLists = new BitSet[methods.size()];
+        for (int i = 0; i < localWorkLists.length; ++i) {
+            localWorkLists[i] = new BitSet(nodes.get(i).size());
+        }
+        methodWorkList = new BitSet(methods.size());
+    }
+
+    /**
+     * @return given methods sorted top-down by the strongly connected
+     * components of the call graph.
+     */
+    private static <Method, Node> List<Method> sortMethods(
+            ICFG<Method, Node> icfg, Collection<Method> methods) {
+        List<Method> sorted = new ArrayList<>(methods.size());
+        getSCCs(icfg, methods).forEach(sorted::addAll);
+        return sorted;
+    }
+
+    /**
+     * @return the strongly connected components of the call graph over
+     * given methods, sorted top-down, i.e., callers before callees.
+     */
+    static <Method, Node> List<List<Method>> getSCCs(
+            ICFG<Method, Node> icfg, Collection<Method> methods) {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Method callee : methods) {
+            callGraph.addNode(callee);
+            for (Node callSite : icfg.getCallersOf(callee)) {
+                callGraph.addEdge(icfg.getContainingMethodOf(callSite), callee);
+            }
+        }
+        return new TopoSorter<>(new MergedSCCGraph<>(callGraph))
+                .get()
+                .stream()
+                .map(MergedNode::getNodes)
+                .toList();
+    }
+
+    /**
+     * @return the nodes of given method in reverse postorder of the
+     * intra-procedural edges from the method entry. The nodes that are
+     * unreachable from the entry are appended at the end.
+     */
+    private static <Method, Node> List<Node> reversePostorder(
+            ICFG<Method, Node> icfg, Method method, List<Node> methodNodes) {
+        Map<Node, Boolean> visited = Maps.newMap();
+        List<Node> postorder = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<ICFGEdge<Node>>> edges = new ArrayDeque<>();
+        Node entry = icfg.getEntryOf(method);
+        visited.put(entry, true);
+        stack.push(entry);
+        edges.push(icfg.getOutEdgesOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<ICFGEdge<Node>> it = edges.peek();
+            if (it.hasNext()) {
+                ICFGEdge<Node> edge = it.next();
+                if (!(edge instanceof CallEdge || edge instanceof ReturnEdge) &&
+                        visited.putIfAbsent(edge.getTarget(), true) == null) {
+                    stack.push(edge.getTarget());
+                    edges.push(icfg.getOutEdgesOf(edge.getTarget()).iterator());
+                }
+            } else {
+                postorder.add(stack.pop());
+                edges.pop();
+            }
+        }
+        Collections.reverse(postorder);
+        for (Node node : methodNodes) {
+            if (!visited.containsKey(node)) {
+                postorder.add(node);
+            }
+        }
+        return postorder;
+    }
+
+    @Override
+    public boolean offer(Node node) {
+        int m = methodIndexes.get(node);
+        BitSet localWorkList = localWorkLists[m];
+        int i = nodeIndexes.get(node);
+        if (localWorkList.get(i)) {
+            return false;
+        }
+        localWorkList.set(i);
+        methodWorkList.set(m);
+        ++size;
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+        if (current < 0 || localWorkLists[current].isEmpty()) {
+            current = methodWorkList.nextSetBit(0);
+        }
+        BitSet localWorkList = localWorkLists[current];
+        int i = localWorkList.nextSetBit(0);
+        localWorkList.clear(i);
+        if (localWorkList.isEmpty()) {
+            methodWorkList.clear(current);
+        }
+        --size;
+        return nodes.get(current).get(i);
+    }
+
+    @Override
+    public Node peek() {
+        if (size == 0) {
+            return null;
+        }
+        int m = current >= 0 && !localWorkLists[current].isEmpty() ?
+                current : methodWorkList.nextSetBit(0);
+        return nodes.get(m).get(localWorkLists[m].nextSetBit(0));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        Integer m = methodIndexes.get((Node) o);
+        return m != null && localWorkLists[m].get(nodeIndexes.get((Node) o));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        List<Node> elements = new ArrayList<>(size);
+        for (int m = methodWorkList.nextSetBit(0); m >= 0;
+             m = methodWorkList.nextSetBit(m + 1)) {
+            List<Node> methodNodes = nodes.get(m);
+            localWorkLists[m].stream().forEach(i -> elements.add(methodNodes.get(i)));
+        }
+        return Collections.unmodifiableList(elements).iterator();
+    }
+}
@@ -45,25 +45,73 @@ import java.util.stream.Stream;
 public abstract class AbstractCallGraph<CallSite, Method>
         implements CallGraph<CallSite, Method> {
 
-    protected final MultiMap<CallSite, Edge<CallSite, Method>> callSiteToEdges = Maps.newMultiMap();
-    protected final MultiMap<Method, Edge<CallSite, Method>> calleeToEdges = Maps.newMultiMap();
-    protected final Map<CallSite, Method> callSiteToContainer = Maps.newMap();
-    protected final MultiMap<Method, CallSite> callSitesIn = Maps.newMultiMap(Sets::newHybridOrderedSet);
+    protected MultiMap<CallSite, Edge<CallSite, Method>> callSiteToEdges = Maps.newMultiMap();
+    protected MultiMap<Method, Edge<CallSite, Method>> calleeToEdges = Maps.newMultiMap();
+    protected Map<CallSite, Method> callSiteToContainer = Maps.newMap();
+    protected MultiMap<Method, CallSite> callSitesIn = Maps.newMultiMap(Sets::newHybridOrderedSet);
     protected final Set<Method> entryMethods = Sets.newSet();
-    protected final Set<Method> reachableMethods = Sets.newSet();
+    protected Set<Method> reachableMethods = Sets.newSet();
+
+    /**
+     * Compact representation of this call graph, which is non-null
+     * after this call graph is frozen.
+     */
+    private CompactCallGraph<CallSite, Method> compact;
+
+    /**
+     * Converts this (finished) call graph to a compact representation,
+     * which saves memory and answers the queries without building new
+     * collections. After freezing, the call graph cannot be modified.
+     */
+    public void freeze() {
+        if (compact == null) {
+            compact = new CompactCallGraph<>(this);
+            callSiteToEdges = Maps.newMultiMap();
+            calleeToEdges = Maps.newMultiMap();
+            callSiteToContainer = Maps.newMap();
+            callSitesIn = Maps.newMultiMap();
+            reachableMethods = Sets.newSet();
+        }
+    }
+
+    /**
+     * @return true if this call graph has been frozen.
+     */
+    public boolean isFrozen() {
+        return compact != null;
+    }
+
+    /**
+     * Throws an exception if this call graph has been frozen;
+     * called by the subclasses before modifying this call graph.
+     */
+    protected void checkNotFrozen() {
+        if (compact != null) {
+            throw new IllegalStateException("Cannot modify a frozen call graph");
+        }
+    }
 
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
+        if (compact != null) {
+            return compact.getCallersOf(callee);
+        }
         return Views.toMappedSet(calleeToEdges.get(callee), Edge::getCallSite);
     }
 
     @Override
     public Set<Method> getCalleesOf(CallSite callSite) {
+        if (compact != null) {
+            return compact.getCalleesOf(callSite);
+        }
         return Views.toMappedSet(callSiteToEdges.get(callSite), Edge::getCallee);
     }
 
     @Override
     public Set<Method> getCalleesOfM(Method caller) {
+        if (compact != null) {
+            return compact.getSuccsOf(caller);
+        }
         return callSitesIn(caller)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
@@ -71,31 +119,49 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Method getContainerOf(CallSite callSite) {
+        if (compact != null) {
+            return compact.getContainerOf(callSite);
+        }
         return callSiteToContainer.get(callSite);
     }
 
     @Override
     public Set<CallSite> getCallSitesIn(Method method) {
+        if (compact != null) {
+            return compact.getCallSitesIn(method);
+        }
         return callSitesIn.get(method);
     }
 
     @Override
     public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        if (compact != null) {
+            return compact.edgesOutOf(callSite);
+        }
         return callSiteToEdges.get(callSite).stream();
     }
 
     @Override
     public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        if (compact != null) {
+            return compact.edgesInTo(method);
+        }
         return calleeToEdges.get(method).stream();
     }
 
     @Override
     public Stream<Edge<CallSite, Method>> edges() {
+        if (compact != null) {
+            return compact.edges();
+        }
         return callSiteToEdges.values().stream();
     }
 
     @Override
     public int getNumberOfEdges() {
+        if (compact != null) {
+            return compact.getNumberOfEdges();
+        }
         return callSiteToEdges.size();
     }
 
@@ -106,16 +172,25 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Stream<Method> reachableMethods() {
+        if (compact != null) {
+            return compact.reachableMethods();
+        }
         return reachableMethods.stream();
     }
 
     @Override
     public int getNumberOfMethods() {
+        if (compact != null) {
+            return compact.getNumberOfMethods();
+        }
         return reachableMethods.size();
     }
 
     @Override
     public boolean contains(Method method) {
+        if (compact != null) {
+            return compact.contains(method);
+        }
         return reachableMethods.contains(method);
     }
 
@@ -128,6 +203,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public boolean hasEdge(Method source, Method target) {
+        if (compact != null) {
+            return compact.hasEdge(source, target);
+        }
         return getSuccsOf(source).contains(target);
     }
 
@@ -150,6 +228,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getPredsOf(Method node) {
+        if (compact != null) {
+            return compact.getPredsOf(node);
+        }
         return getCallersOf(node)
                 .stream()
                 .map(this::getContainerOf)
@@ -158,6 +239,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getSuccsOf(Method node) {
+        if (compact != null) {
+            return compact.getSuccsOf(node);
+        }
         return callSitesIn(node)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
@@ -165,6 +249,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getNodes() {
+        if (compact != null) {
+            return compact.getNodes();
+        }
         return Collections.unmodifiableSet(reachableMethods);
     }
 }
@@ -22,26 +22,48 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementation of the CHA algorithm.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    private static final Logger logger = LogManager.getLogger(CHABuilder.class);
+
+    /**
+     * Number of threads used to expand reachable methods.
+     * If it is 1, the call graph is built sequentially.
+     */
+    private final int parallelism;
+
     private ClassHierarchy hierarchy;
 
+    CHABuilder(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        JMethod entry = World.get().getMainMethod();
+        CallGraph<Invoke, JMethod> callGraph = parallelism > 1 ?
+                buildCallGraphInParallel(entry) : buildCallGraph(entry);
+        if (hierarchy instanceof ClassHierarchyImpl impl) {
+            logger.debug("{}", impl.getDispatchTable());
+        }
+        return callGraph;
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
@@ -81,6 +103,67 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Builds the call graph level by level: the methods discovered in
+     * the same level are expanded (i.e., their IRs are built and their
+     * call sites are resolved) in parallel, and then the results are
+     * added to the call graph by the current thread. Each method is
+     * expanded exactly once, and the resulting call graph is identical
+     * to the one built by {@link #buildCallGraph(JMethod)}.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        // 已发现的方法（包括尚未展开的方法），保证每个方法只被展开一次
+        Set<JMethod> discovered = new HashSet<>();
+        discovered.add(entry);
+        List<JMethod> level = List.of(entry);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (!level.isEmpty()) {
+                List<JMethod> methods = level;
+                // 并行地展开当前层的方法：构建 IR 并解析其中所有调用点的目标方法
+                List<List<Edge<Invoke, JMethod>>> edges = pool.submit(() ->
+                        methods.parallelStream()
+                                .map(this::expand)
+                                .toList()).join();
+                // 由当前线程将结果加入调用图，并收集下一层新发现的方法
+                List<JMethod> next = new ArrayList<>();
+                for (int i = 0; i < methods.size(); ++i) {
+                    callGraph.addReachableMethod(methods.get(i));
+                    for (Edge<Invoke, JMethod> edge : edges.get(i)) {
+                        callGraph.addEdge(edge);
+                        if (discovered.add(edge.getCallee())) {
+                            next.add(edge.getCallee());
+                        }
+                    }
+                }
+                level = next;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the call edges out of the call sites in given method.
+     */
+    private List<Edge<Invoke, JMethod>> expand(JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        method.getIR().forEach(stmt -> {
+            if (stmt instanceof Invoke callSite) {
+                CallKind kind = CallGraphs.getCallKind(callSite);
+                resolve(callSite).forEach(callee ->
+                        edges.add(new Edge<>(kind, callSite, callee)));
+            }
+        });
+        return edges;
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
@@ -96,29 +179,12 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         switch (CallGraphs.getCallKind(callSite)) {
             // 对于静态调用和特殊调用，只有一个可能的目标方法
             case STATIC, SPECIAL -> T.add(dispatch(method_class, method_signature));
-            // 对于虚拟调用，可能的目标方法包括声明类及其所有子类中的同签名方法
-            case VIRTUAL -> {
-                T.add(dispatch(method_class, method_signature));
-                Deque<JClass> dq = new ArrayDeque<>(hierarchy.getDirectSubclassesOf(method_class));
-                while(!dq.isEmpty()){
-                    JClass c = dq.poll();
-                    T.add(dispatch(c,method_signature));
-                    dq.addAll(hierarchy.getDirectSubclassesOf(c));
-                }
-            }
-            // 对于接口调用，可能的目标方法包括声明接口及其所有子接口和实现类中的同签名方法
-            case INTERFACE -> {
-                T.add(dispatch(method_class, method_signature));
-                Deque<JClass> dq = new ArrayDeque<>();
-                dq.addAll(hierarchy.getDirectSubinterfacesOf(method_class));
-                dq.addAll(hierarchy.getDirectImplementorsOf(method_class));
-
-                while(!dq.isEmpty()){
-                    JClass c = dq.poll();
-                    T.add(dispatch(c,method_signature));
-                    dq.addAll(hierarchy.getDirectSubclassesOf(c));
-                    dq.addAll(hierarchy.getDirectSubinterfacesOf(c));
-                    dq.addAll(hierarchy.getDirectImplementorsOf(c));
+            // 对于虚拟调用和接口调用，可能的目标方法包括声明类（接口）及其所有子类
+            // （子接口、实现类及其子类）中的同签名方法；
+            // 类层次结构预先计算了子类型闭包，无需每次遍历类层次结构
+            case VIRTUAL, INTERFACE -> {
+                for (JClass c : hierarchy.getAllSubclassesOf(method_class)) {
+                    T.add(dispatch(c, method_signature));
                 }
             }
         }
@@ -136,16 +202,8 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        // 如果类是 null，返回 null，因为 null 类中没有方法
-        if(jclass == null) return null;
-        // 获取类中具有指定签名的方法
-        JMethod method = jclass.getDeclaredMethod(subsignature);
-        // 如果在类中找不到该方法，或者找到的方法是抽象的
-        if(method == null || method.isAbstract()) {
-            // 在类的父类中查找该方法
-            return dispatch(jclass.getSuperClass(), subsignature);
-        }
-        // 如果在类中找到了非抽象的方法，返回该方法
-        return method;
+        // 沿着类及其父类查找具有指定签名的非抽象方法；
+        // 查找结果由类层次结构的分派表缓存，在各个调用点之间（以及其他分析中）复用
+        return hierarchy.dispatch(jclass, subsignature);
     }
 }
@@ -48,22 +48,35 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    /**
+     * Number of threads used to build the call graph, given by option
+     * {@code parallelism}; defaults to 1, i.e., no parallelism.
+     */
+    private final int parallelism;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        parallelism = getOptions().get("parallelism") instanceof Integer p ?
+                p : 1;
     }
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
-        if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
-        } else {
-            throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
+        switch (algorithm) {
+            case "cha" -> builder = new CHABuilder(parallelism);
+            case "rta" -> builder = new RTABuilder();
+            default -> throw new ConfigException(
+                    "Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (getOptions().getBooleanOrDefault("freeze", false) &&
+                callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            cg.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -0,0 +1,444 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable representation of a finished call graph in compressed sparse
+ * row (CSR) format, which is created by {@link AbstractCallGraph#freeze()}.
+ * <p>
+ * Methods and call sites are numbered densely, so that the call sites
+ * in each method, the edges out of each call site, the edges into each
+ * method, and the successors/predecessors of each method take contiguous
+ * ranges of int arrays. Queries return read-only views of these ranges
+ * instead of building new collections.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+final class CompactCallGraph<CallSite, Method> {
+
+    /**
+     * Methods indexed by their numbers. The reachable methods come
+     * first and take numbers [0, numberOfReachableMethods).
+     */
+    private final Object[] methods;
+
+    private final int numberOfReachableMethods;
+
+    private final Map<Method, Integer> methodIds;
+
+    /**
+     * Call sites indexed by their numbers. The call sites in method m
+     * take numbers [callSiteOffsets[m], callSiteOffsets[m + 1]).
+     */
+    private final Object[] callSites;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    private final int[] callSiteOffsets;
+
+    /**
+     * Container methods of the call sites, indexed by call site numbers.
+     */
+    private final Object[] containers;
+
+    /**
+     * Edges sorted by call site numbers. The edges out of call site c
+     * take indexes [edgeOffsets[c], edgeOffsets[c + 1]).
+     */
+    private final Edge<CallSite, Method>[] edges;
+
+    private final int[] edgeOffsets;
+
+    /**
+     * Indexes of the edges into method m are
+     * inEdges[inEdgeOffsets[m] .. inEdgeOffsets[m + 1]), and the numbers
+     * of their call sites are stored at the same positions of callers.
+     */
+    private final int[] inEdgeOffsets;
+
+    private final int[] inEdges;
+
+    private final int[] callers;
+
+    /**
+     * Numbers of the (distinct) successors of method m are
+     * succs[succOffsets[m] .. succOffsets[m + 1]).
+     */
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    /**
+     * Numbers of the (distinct) predecessors of method m are
+     * preds[predOffsets[m] .. predOffsets[m + 1]).
+     */
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    CompactCallGraph(CallGraph<CallSite, Method> callGraph) {
+        // number methods: reachable methods first, then the other callees
+        // and containers (if any) that are not reachable
+        List<Method> reachable = callGraph.reachableMethods().toList();
+        numberOfReachableMethods = reachable.size();
+        methodIds = Maps.newMap();
+        reachable.forEach(m -> methodIds.put(m, methodIds.size()));
+        // number call sites, grouped by their containers
+        callSiteIds = Maps.newMap();
+        int[] offsets = new int[reachable.size() + 1];
+        for (int m = 0; m < reachable.size(); ++m) {
+            offsets[m] = callSiteIds.size();
+            callGraph.getCallSitesIn(reachable.get(m)).forEach(
+                    cs -> callSiteIds.putIfAbsent(cs, callSiteIds.size()));
+        }
+        offsets[reachable.size()] = callSiteIds.size();
+        callGraph.edges().forEach(e ->
+                callSiteIds.putIfAbsent(e.getCallSite(), callSiteIds.size()));
+        callSites = new Object[callSiteIds.size()];
+        callSiteIds.forEach((cs, id) -> callSites[id] = cs);
+        containers = new Object[callSites.length];
+        for (int c = 0; c < callSites.length; ++c) {
+            Method container = callGraph.getContainerOf(getCallSite(c));
+            containers[c] = container;
+            if (container != null) {
+                methodIds.putIfAbsent(container, methodIds.size());
+            }
+        }
+        callGraph.edges().forEach(e ->
+                methodIds.putIfAbsent(e.getCallee(), methodIds.size()));
+        methods = new Object[methodIds.size()];
+        methodIds.forEach((m, id) -> methods[id] = m);
+        // the unreachable methods have no call sites
+        callSiteOffsets = Arrays.copyOf(offsets, methods.length + 1);
+        Arrays.fill(callSiteOffsets, reachable.size() + 1,
+                callSiteOffsets.length, offsets[reachable.size()]);
+
+        // edges out of call sites
+        edgeOffsets = new int[callSites.length + 1];
+        @SuppressWarnings("unchecked")
+        var edgeArray = (Edge<CallSite, Method>[])
+                new Edge<?, ?>[callGraph.getNumberOfEdges()];
+        edges = edgeArray;
+        int e = 0;
+        for (int c = 0; c < callSites.length; ++c) {
+            edgeOffsets[c] = e;
+            for (Iterator<Edge<CallSite, Method>> it = callGraph
+                    .edgesOutOf(getCallSite(c)).iterator(); it.hasNext(); ) {
+                edges[e++] = it.next();
+            }
+        }
+        edgeOffsets[callSites.length] = e;
+
+        // edges into methods, by counting sort on callees
+        inEdgeOffsets = new int[methods.length + 1];
+        for (Edge<CallSite, Method> edge : edges) {
+            ++inEdgeOffsets[methodIds.get(edge.getCallee()) + 1];
+        }
+        for (int m = 0; m < methods.length; ++m) {
+            inEdgeOffsets[m + 1] += inEdgeOffsets[m];
+        }
+        inEdges = new int[edges.length];
+        callers = new int[edges.length];
+        int[] next = Arrays.copyOf(inEdgeOffsets, methods.length);
+        for (int c = 0; c < callSites.length; ++c) {
+            for (int i = edgeOffsets[c]; i < edgeOffsets[c + 1]; ++i) {
+                int pos = next[methodIds.get(edges[i].getCallee())]++;
+                inEdges[pos] = i;
+                callers[pos] = c;
+            }
+        }
+
+        // distinct successors and predecessors
+        int[] mark = new int[methods.length];
+        Arrays.fill(mark, -1);
+        succOffsets = new int[methods.length + 1];
+        int[] succBuffer = new int[edges.length];
+        int n = 0;
+        for (int m = 0; m < methods.length; ++m) {
+            succOffsets[m] = n;
+            for (int c = callSiteOffsets[m]; c < callSiteOffsets[m + 1]; ++c) {
+                for (int i = edgeOffsets[c]; i < edgeOffsets[c + 1]; ++i) {
+                    int callee = methodIds.get(edges[i].getCallee());
+                    if (mark[callee] != m) {
+                        mark[callee] = m;
+                        succBuffer[n++] = callee;
+                    }
+                }
+            }
+        }
+        succOffsets[methods.length] = n;
+        succs = Arrays.copyOf(succBuffer, n);
+        Arrays.fill(mark, -1);
+        predOffsets = new int[methods.length + 1];
+        int[] predBuffer = new int[edges.length];
+        n = 0;
+        for (int m = 0; m < methods.length; ++m) {
+            predOffsets[m] = n;
+            for (int i = inEdgeOffsets[m]; i < inEdgeOffsets[m + 1]; ++i) {
+                Object container = containers[callers[i]];
+                if (container != null) {
+                    int caller = methodIds.get(container);
+                    if (mark[caller] != m) {
+                        mark[caller] = m;
+                        predBuffer[n++] = caller;
+                    }
+                }
+            }
+        }
+        predOffsets[methods.length] = n;
+        preds = Arrays.copyOf(predBuffer, n);
+    }
+
+    private int getMethodId(Method method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : -1;
+    }
+
+    private int getCallSiteId(CallSite callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ? id : -1;
+    }
+
+    Set<CallSite> getCallersOf(Method callee) {
+        int m = getMethodId(callee);
+        return m < 0 ? Set.of() :
+                new ArrayView<>(callSites, callers, inEdgeOffsets[m], inEdgeOffsets[m + 1]);
+    }
+
+    Set<Method> getCalleesOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c < 0 ? Set.of() :
+                new EdgeCalleeView(edgeOffsets[c], edgeOffsets[c + 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CallSite getCallSite(int c) {
+        return (CallSite) callSites[c];
+    }
+
+    @SuppressWarnings("unchecked")
+    Method getContainerOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c < 0 ? null : (Method) containers[c];
+    }
+
+    Set<CallSite> getCallSitesIn(Method method) {
+        int m = getMethodId(method);
+        return m < 0 ? Set.of() :
+                new ArrayView<>(callSites, null, callSiteOffsets[m], callSiteOffsets[m + 1]);
+    }
+
+    Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c < 0 ? Stream.of() :
+                Arrays.stream(edges, edgeOffsets[c], edgeOffsets[c + 1]);
+    }
+
+    Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        int m = getMethodId(method);
+        return m < 0 ? Stream.of() :
+                IntStream.range(inEdgeOffsets[m], inEdgeOffsets[m + 1])
+                        .mapToObj(i -> edges[inEdges[i]]);
+    }
+
+    Stream<Edge<CallSite, Method>> edges() {
+        return Arrays.stream(edges);
+    }
+
+    int getNumberOfEdges() {
+        return edges.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    Stream<Method> reachableMethods() {
+        return Arrays.stream(methods, 0, numberOfReachableMethods)
+                .map(m -> (Method) m);
+    }
+
+    int getNumberOfMethods() {
+        return numberOfReachableMethods;
+    }
+
+    boolean contains(Method method) {
+        int m = getMethodId(method);
+        return 0 <= m && m < numberOfReachableMethods;
+    }
+
+    boolean hasEdge(Method source, Method target) {
+        int s = getMethodId(source), t = getMethodId(target);
+        if (s < 0 || t < 0) {
+            return false;
+        }
+        for (int i = succOffsets[s]; i < succOffsets[s + 1]; ++i) {
+            if (succs[i] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Set<Method> getPredsOf(Method method) {
+        int m = getMethodId(method);
+        return m < 0 ? Set.of() :
+                new ArrayView<>(methods, preds, predOffsets[m], predOffsets[m + 1]);
+    }
+
+    Set<Method> getSuccsOf(Method method) {
+        int m = getMethodId(method);
+        return m < 0 ? Set.of() :
+                new ArrayView<>(methods, succs, succOffsets[m], succOffsets[m + 1]);
+    }
+
+    Set<Method> getNodes() {
+        return new ArrayView<>(methods, null, 0, numberOfReachableMethods);
+    }
+
+    /**
+     * Read-only set view of elements[from .. to), or of the elements
+     * whose numbers are ids[from .. to) if ids is not null.
+     * The elements in the range are distinct.
+     */
+    private static class ArrayView<E> extends AbstractSet<E> {
+
+        private final Object[] elements;
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private ArrayView(Object[] elements, int[] ids, int from, int to) {
+            this.elements = elements;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E get(int i) {
+            return (E) elements[ids == null ? i : ids[i]];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int i = from; i < to; ++i) {
+                if (get(i).equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(i++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Read-only set view of the callees of edges[from .. to).
+     */
+    private class EdgeCalleeView extends AbstractSet<Method> {
+
+        private final int from;
+
+        private final int to;
+
+        private EdgeCalleeView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int i = from; i < to; ++i) {
+                if (edges[i].getCallee().equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<Method> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public Method next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return edges[i++].getCallee();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * <p>
+ * Compared to CHA, RTA tracks the classes instantiated in reachable
+ * methods, and dispatches virtual and interface calls only on the
+ * instantiated subtypes of the declaring class of the callee. When a
+ * class is instantiated for the first time, the call sites processed
+ * so far are re-resolved on the new class, so the result does not
+ * depend on the order in which methods are processed.
+ * <p>
+ * Besides {@link New} statements, string and class literals are treated
+ * as instances of {@code java.lang.String} and {@code java.lang.Class},
+ * and arrays as instances of {@code java.lang.Object}. Objects created
+ * by the JVM or by native code are not tracked.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Deque<JMethod> workList;
+
+    /**
+     * Classes that have been instantiated in reachable methods.
+     */
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Map from a class to the virtual and interface call sites whose
+     * callees are declared in the class.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        callGraph = new DefaultCallGraph();
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                method.getIR().forEach(this::processStmt);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processStmt(Stmt stmt) {
+        if (stmt instanceof New newStmt) {
+            NewExp newExp = newStmt.getRValue();
+            if (newExp instanceof NewInstance newInstance) {
+                instantiate(newInstance.getType().getJClass());
+            } else if (newExp instanceof NewArray ||
+                    newExp instanceof NewMultiArray) {
+                instantiate(hierarchy.getJREClass(ClassNames.OBJECT));
+            }
+        } else if (stmt instanceof AssignLiteral assign) {
+            if (assign.getRValue().getType() instanceof ClassType type) {
+                instantiate(type.getJClass());
+            }
+        } else if (stmt instanceof Invoke callSite) {
+            processCallSite(callSite);
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        JClass jclass = callSite.getMethodRef().getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC, SPECIAL -> addEdge(callSite, jclass);
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(jclass, callSite);
+                for (JClass subclass : hierarchy.getAllSubclassesOf(jclass)) {
+                    if (instantiatedClasses.contains(subclass)) {
+                        addEdge(callSite, subclass);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that given class is instantiated, and resolves the call sites
+     * processed so far, which may be dispatched on the class.
+     */
+    private void instantiate(JClass jclass) {
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        Set<JClass> supertypes = Sets.newSet();
+        Deque<JClass> queue = new ArrayDeque<>();
+        queue.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    queue.add(c.getSuperClass());
+                }
+                queue.addAll(c.getInterfaces());
+            }
+        }
+        for (JClass supertype : supertypes) {
+            for (Invoke callSite : virtualCallSites.get(supertype)) {
+                addEdge(callSite, jclass);
+            }
+        }
+    }
+
+    /**
+     * Adds the call edge from given call site to the method dispatched on
+     * given class, if any, and adds the callee to the work list.
+     */
+    private void addEdge(Invoke callSite, JClass jclass) {
+        JMethod callee = hierarchy.dispatch(jclass,
+                callSite.getMethodRef().getSubsignature());
+        if (callee != null &&
+                callGraph.addEdge(new Edge<>(
+                        CallGraphs.getCallKind(callSite), callSite, callee)) &&
+                !callGraph.contains(callee)) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Scope;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link LazyICFG} built from the call graph and the CFGs of the methods.
+ * <p>
+ * Unlike {@link DefaultICFG}, which connects the CFGs of all reachable
+ * methods up front, this ICFG builds the edges of a method when they are
+ * first queried, i.e., the intra-procedural edges of the method, the call
+ * edges to its callees and from its callers, and the return edges to its
+ * return sites and from its exit. An edge between two methods is built
+ * on both sides, thus the edges of a method do not depend on whether
+ * the other methods have been built. The edges of a method can be
+ * released by {@link #release(JMethod)}, and are rebuilt when queried again.
+ * <p>
+ * The CFGs are held by the IRs, so the nodes, including the entry and exit
+ * of each method, stay the same after the edges are released. If the cfg
+ * pass has not run, the CFG of a method in the scope of method analyses is
+ * built, with the default options of throw and cfg, and stored in its IR
+ * when it is first fetched.
+ * <p>
+ * The nodes of a method are known once its CFG is fetched, i.e., when the
+ * method, its edges, or the edges of its callers or callees are built.
+ * Clients are expected to discover the nodes forward from the entry
+ * methods; {@link #getContainingMethodOf(Stmt)} and {@link #hasNode(Stmt)}
+ * do not look for the nodes of the methods that have not been fetched.
+ */
+public class DefaultLazyICFG extends AbstractICFG<JMethod, Stmt>
+        implements LazyICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(DefaultLazyICFG.class);
+
+    /**
+     * Containing methods of the nodes whose CFGs have been fetched.
+     */
+    private final Map<Stmt, JMethod> stmtToMethod = new ConcurrentHashMap<>();
+
+    /**
+     * Edges of the methods that have been built.
+     */
+    private final Map<JMethod, MethodEdges> methodEdges = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the nodes of all reachable methods have been indexed.
+     */
+    private volatile boolean allIndexed = false;
+
+    private final ThrowAnalysis throwAnalysis = new ThrowAnalysis(
+            new AnalysisConfig(ThrowAnalysis.ID,
+                    "exception", "explicit", "algorithm", "intra"));
+
+    private final CFGBuilder cfgBuilder = new CFGBuilder(
+            new AnalysisConfig(CFGBuilder.ID, "exception", "explicit", "dump", false));
+
+    public DefaultLazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        return getEdgesOf(getContainingMethodOf(stmt)).inEdges().get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        return getEdgesOf(getContainingMethodOf(stmt)).outEdges().get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return getCFGOf(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(getContainingMethodOf(callSite)).getSuccsOf(callSite);
+    }
+
+    /**
+     * @return the containing method of given node, or null if the CFG
+     * of the method has not been fetched.
+     */
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        JMethod method = stmtToMethod.get(stmt);
+        if (method == null && stmt instanceof Invoke invoke) {
+            getCFGOf(invoke.getContainer());
+            method = stmtToMethod.get(stmt);
+        }
+        return method;
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<Stmt> getNodesOf(JMethod method) {
+        return getCFGOf(method).getNodes();
+    }
+
+    @Override
+    public void release(JMethod method) {
+        methodEdges.remove(method);
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return getContainingMethodOf(stmt) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    /**
+     * Fetches the CFGs of all reachable methods, thus the returned set is
+     * complete, but the edges are still built on demand. The lazy solving
+     * does not call this method, as it defeats the purpose of this ICFG.
+     */
+    @Override
+    public Set<Stmt> getNodes() {
+        indexAll();
+        return Collections.unmodifiableSet(stmtToMethod.keySet());
+    }
+
+    private void indexAll() {
+        if (!allIndexed) {
+            callGraph.reachableMethods().forEach(this::getCFGOf);
+            allIndexed = true;
+        }
+    }
+
+    /**
+     * @return the CFG of the given method, and records the method
+     * as the containing method of the nodes of the CFG.
+     */
+    private CFG<Stmt> getCFGOf(JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (cfg == null && isInScope(method)) {
+            cfg = buildCFG(method);
+        }
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this by adding option -scope=reachable",
+                    method);
+        } else if (!stmtToMethod.containsKey(cfg.getExit())) {
+            for (Stmt stmt : cfg) {
+                stmtToMethod.put(stmt, method);
+            }
+        }
+        return cfg;
+    }
+
+    /**
+     * @return true if the cfg pass would build the CFG of given method
+     * under the scope of method analyses, i.e., the method is in an
+     * application class when the scope is app.
+     */
+    private static boolean isInScope(JMethod method) {
+        return !method.isAbstract() && !method.isNative() &&
+                (!Scope.APP.equals(World.get().getOptions().getScope()) ||
+                        method.getDeclaringClass().isApplication());
+    }
+
+    /**
+     * Builds the CFG of given method, and stores it and the result of
+     * throw analysis it requires in the IR, as the cfg pass does.
+     */
+    private CFG<Stmt> buildCFG(JMethod method) {
+        IR ir = method.getIR();
+        synchronized (ir) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                if (ir.getResult(ThrowAnalysis.ID) == null) {
+                    ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+                }
+                cfg = cfgBuilder.analyze(ir);
+                ir.storeResult(CFGBuilder.ID, cfg);
+            }
+            return cfg;
+        }
+    }
+
+    private MethodEdges getEdgesOf(JMethod method) {
+        return methodEdges.computeIfAbsent(method, this::buildEdges);
+    }
+
+    private MethodEdges buildEdges(JMethod method) {
+        MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+        MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+        CFG<Stmt> cfg = getCFGOf(method);
+        cfg.forEach(stmt -> {
+            cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                        new CallToReturnEdge<>(edge) :
+                        new NormalEdge<>(edge);
+                outEdges.put(stmt, local);
+                inEdges.put(edge.getTarget(), local);
+            });
+            if (isCallSite(stmt)) {
+                // edges to the callees, and back to the return sites
+                getCalleesOf(stmt).forEach(callee -> {
+                    CFG<Stmt> calleeCFG = getCFGOf(callee);
+                    if (calleeCFG == null) {
+                        logger.warn("CFG of {} is missing", callee);
+                        return;
+                    }
+                    outEdges.put(stmt,
+                            new CallEdge<>(stmt, calleeCFG.getEntry(), callee));
+                    cfg.getSuccsOf(stmt).forEach(retSite -> inEdges.put(retSite,
+                            newReturnEdge(calleeCFG, retSite, stmt)));
+                });
+            }
+        });
+        // edges from the callers, and back to their return sites
+        getCallersOf(method).forEach(callSite -> {
+            CFG<Stmt> callerCFG = getCFGOf(((Invoke) callSite).getContainer());
+            if (callerCFG == null) {
+                return;
+            }
+            inEdges.put(cfg.getEntry(),
+                    new CallEdge<>(callSite, cfg.getEntry(), method));
+            callerCFG.getSuccsOf(callSite).forEach(retSite -> outEdges.put(
+                    cfg.getExit(), newReturnEdge(cfg, retSite, callSite)));
+        });
+        return new MethodEdges(inEdges, outEdges);
+    }
+
+    private static ReturnEdge<Stmt> newReturnEdge(
+            CFG<Stmt> calleeCFG, Stmt retSite, Stmt callSite) {
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN &&
+                    ((Return) edge.getSource()).getValue() != null) {
+                retVars.add(((Return) edge.getSource()).getValue());
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        });
+        return new ReturnEdge<>(exit, retSite, callSite, retVars, exceptions);
+    }
+
+    /**
+     * Incoming and outgoing edges of the nodes of a method.
+     */
+    private record MethodEdges(MultiMap<Stmt, ICFGEdge<Stmt>> inEdges,
+                               MultiMap<Stmt, ICFGEdge<Stmt>> outEdges) {
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import java.util.Set;
+
+/**
+ * Represents an ICFG whose methods are built on demand, i.e., the nodes
+ * and edges of a method are materialized only when they are first queried.
+ * The structures built for a method can be released when they are
+ * not needed anymore, and they are rebuilt if they are queried again.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of nodes
+ */
+public interface LazyICFG<Method, Node> extends ICFG<Method, Node> {
+
+    /**
+     * @return the nodes of the given method.
+     */
+    Set<Node> getNodesOf(Method method);
+
+    /**
+     * Releases the edges built for the given method. The nodes of the
+     * method stay the same, so facts keyed by them remain valid.
+     */
+    void release(Method method);
+}
@@ -25,7 +25,11 @@ package pascal.taie.language.classes;
 import pascal.taie.ir.proginfo.MethodRef;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -75,6 +79,45 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subclasses of given class (including itself), or for
+     * interface, all its subinterfaces, implementors and their subclasses
+     * (including itself).
+     */
+    default Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        Set<JClass> subclasses = new LinkedHashSet<>();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (subclasses.add(c)) {
+                workList.addAll(getDirectSubclassesOf(c));
+                workList.addAll(getDirectSubinterfacesOf(c));
+                workList.addAll(getDirectImplementorsOf(c));
+            }
+        }
+        return subclasses;
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature,
+     * i.e., the first non-abstract method with the subsignature found along
+     * the given class and its superclasses.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    @Nullable
+    default JMethod dispatch(@Nullable JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
     /**
      * Obtains a JRE class by it name.
      *
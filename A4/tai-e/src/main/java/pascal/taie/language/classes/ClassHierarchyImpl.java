@@ -65,6 +65,19 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Index of the subtype closure, which is built on first query and
+     * discarded when the hierarchy changes.
+     */
+    private volatile SubtypeIndex subtypeIndex;
+
+    /**
+     * Cache of method dispatch, which is shared by all analyses
+     * that resolve calls on this hierarchy, and cleared when the
+     * hierarchy changes.
+     */
+    private final DispatchTable dispatchTable = new DispatchTable();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +110,8 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        subtypeIndex = null;
+        dispatchTable.clear();
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +175,36 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    /**
+     * Answers the query by {@link SubtypeIndex}, which is built once
+     * for all classes, so that each query only takes time proportional
+     * to the size of the result.
+     */
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        SubtypeIndex index = subtypeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = subtypeIndex;
+                if (index == null) {
+                    subtypeIndex = index = new SubtypeIndex(this);
+                }
+            }
+        }
+        Collection<JClass> subclasses = index.getAllSubclassesOf(jclass);
+        return subclasses != null ? subclasses :
+                ClassHierarchy.super.getAllSubclassesOf(jclass);
+    }
+
+    @Override
+    public JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        return dispatchTable.dispatch(jclass, subsignature);
+    }
+
+    public DispatchTable getDispatchTable() {
+        return dispatchTable;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
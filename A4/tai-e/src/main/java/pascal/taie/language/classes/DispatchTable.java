@@ -0,0 +1,132 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of method dispatch, i.e., the results of looking up
+ * the implementation of a subsignature starting from a class and going up
+ * along its superclasses.
+ * <p>
+ * Entries are populated lazily: a lookup also records the results for the
+ * superclasses it visits, so later lookups from sibling classes stop at
+ * their closest common superclass.
+ */
+public class DispatchTable {
+
+    /**
+     * Map from class to (subsignature -> dispatched method). Absent
+     * results are recorded as {@link Optional#empty()}.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> table
+            = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    public @Nullable
+    JMethod dispatch(@Nullable JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        Optional<JMethod> result = getEntries(jclass).get(subsignature);
+        if (result != null) {
+            hits.increment();
+            return result.orElse(null);
+        }
+        misses.increment();
+        return lookup(jclass, subsignature);
+    }
+
+    private JMethod lookup(@Nullable JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        Map<Subsignature, Optional<JMethod>> entries = getEntries(jclass);
+        Optional<JMethod> result = entries.get(subsignature);
+        if (result == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = lookup(jclass.getSuperClass(), subsignature);
+            }
+            result = Optional.ofNullable(method);
+            // concurrent lookups compute the same result, thus it does not
+            // matter which one is kept
+            entries.put(subsignature, result);
+        }
+        return result.orElse(null);
+    }
+
+    private Map<Subsignature, Optional<JMethod>> getEntries(JClass jclass) {
+        return table.computeIfAbsent(jclass, c -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Discards all cached dispatch results.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * @return number of lookups answered by the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to walk the class hierarchy.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return ratio of lookups answered by the cache, or 0 if there has
+     * been no lookup.
+     */
+    public double getHitRate() {
+        long hits = getHits(), total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DispatchTable{hits=%d, misses=%d, hit rate=%.2f%%}",
+                getHits(), getMisses(), getHitRate() * 100);
+    }
+}
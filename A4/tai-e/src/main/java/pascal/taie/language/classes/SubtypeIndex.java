@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the subtype closure of a {@link ClassHierarchy}, which answers
+ * {@link ClassHierarchy#getAllSubclassesOf(JClass)} without traversing
+ * the hierarchy.
+ * <p>
+ * The classes (except interfaces) are numbered in preorder of the tree
+ * of the superclass relation, thus the subclasses of each class take a
+ * contiguous range of numbers, starting from the class itself. The
+ * interfaces are numbered after the classes, and the subtypes of each
+ * interface are represented by a bit set over the numbers, which is
+ * computed on first query from the ranges of its direct implementors
+ * and the bit sets of its direct subinterfaces.
+ * <p>
+ * Classes are visited in the order of their names, so that the numbers,
+ * and thus the order of the query results, do not depend on the iteration
+ * order of the sets in the hierarchy.
+ */
+class SubtypeIndex {
+
+    private static final Comparator<JClass> BY_NAME =
+            Comparator.comparing(JClass::getName);
+
+    /**
+     * Classes and interfaces indexed by their numbers.
+     */
+    private final JClass[] types;
+
+    private final Map<JClass, Integer> numbers;
+
+    /**
+     * For each class, the number after the last one of its subclasses.
+     */
+    private final int[] ends;
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Subtypes of the interfaces, computed on demand.
+     */
+    private final Map<JClass, BitSet> interfaceSubtypes = new ConcurrentHashMap<>();
+
+    SubtypeIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> sorted = hierarchy.allClasses()
+                .sorted(BY_NAME)
+                .toList();
+        Set<JClass> classes = Set.copyOf(sorted);
+        types = new JClass[classes.size()];
+        numbers = Maps.newMap(classes.size());
+        ends = new int[classes.size()];
+        int count = 0;
+        for (JClass jclass : sorted) {
+            JClass superClass = jclass.getSuperClass();
+            if (!jclass.isInterface() &&
+                    (superClass == null || !classes.contains(superClass))) {
+                count = number(jclass, count, classes);
+            }
+        }
+        for (JClass jclass : sorted) {
+            if (jclass.isInterface()) {
+                types[count] = jclass;
+                numbers.put(jclass, count++);
+            }
+        }
+    }
+
+    /**
+     * Numbers given class and its subclasses in preorder.
+     *
+     * @return the next available number.
+     */
+    private int number(JClass jclass, int next, Set<JClass> classes) {
+        int number = next++;
+        types[number] = jclass;
+        numbers.put(jclass, number);
+        List<JClass> subclasses = hierarchy.getDirectSubclassesOf(jclass)
+                .stream()
+                .filter(classes::contains)
+                .sorted(BY_NAME)
+                .toList();
+        for (JClass subclass : subclasses) {
+            next = number(subclass, next, classes);
+        }
+        ends[number] = next;
+        return next;
+    }
+
+    /**
+     * @return all subclasses of given class (including itself), or
+     * for interface, all its subinterfaces and implementors and their
+     * subclasses (including itself); null if the class is not indexed.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        Integer number = numbers.get(jclass);
+        if (number == null) {
+            return null;
+        }
+        if (!jclass.isInterface()) {
+            return Collections.unmodifiableList(
+                    Arrays.asList(types).subList(number, ends[number]));
+        }
+        BitSet subtypes = getInterfaceSubtypes(jclass);
+        List<JClass> result = new ArrayList<>(subtypes.cardinality());
+        for (int i = subtypes.nextSetBit(0); i >= 0; i = subtypes.nextSetBit(i + 1)) {
+            result.add(types[i]);
+        }
+        return result;
+    }
+
+    private BitSet getInterfaceSubtypes(JClass iface) {
+        BitSet subtypes = interfaceSubtypes.get(iface);
+        if (subtypes == null) {
+            // computeIfAbsent() cannot be used, as the computation
+            // recursively updates the map for the subinterfaces
+            subtypes = new BitSet(types.length);
+            subtypes.set(numbers.get(iface));
+            for (JClass subinterface : hierarchy.getDirectSubinterfacesOf(iface)) {
+                if (numbers.containsKey(subinterface)) {
+                    subtypes.or(getInterfaceSubtypes(subinterface));
+                }
+            }
+            for (JClass implementor : hierarchy.getDirectImplementorsOf(iface)) {
+                Integer number = numbers.get(implementor);
+                if (number != null) {
+                    subtypes.set(number, ends[number]);
+                }
+            }
+            interfaceSubtypes.put(iface, subtypes);
+        }
+        return subtypes;
+    }
+}
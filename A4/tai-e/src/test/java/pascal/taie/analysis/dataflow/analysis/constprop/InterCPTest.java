@@ -30,9 +30,17 @@ public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
+    private static final String[] CASES = {
+            "Example", "Reference", "Fibonacci", "MultiIntArgs"
+    };
+
     void test(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false");
+    }
+
+    void test(String inputClass, String options) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                options, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -57,4 +65,52 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    /**
+     * Results solved with the work list scheduled by methods must be
+     * the same as the expected ones.
+     */
+    @Test
+    public void testMethodGranular() {
+        for (String inputClass : CASES) {
+            test(inputClass,
+                    "edge-refine:false;alias-aware:false;method-granular:true");
+        }
+    }
+
+    /**
+     * Results solved in parallel over the strongly connected components
+     * of the call graph must be the same as the expected ones.
+     */
+    @Test
+    public void testParallel() {
+        for (String inputClass : CASES) {
+            test(inputClass,
+                    "edge-refine:false;alias-aware:false;parallelism:4");
+        }
+    }
+
+    /**
+     * Results answered by demand-driven queries must be the same as
+     * the expected ones.
+     */
+    @Test
+    public void testDemandDriven() {
+        for (String inputClass : CASES) {
+            test(inputClass,
+                    "edge-refine:false;alias-aware:false;demand-driven:true");
+        }
+    }
+
+    /**
+     * Results solved on the ICFG built on demand must be the same as
+     * the expected ones.
+     */
+    @Test
+    public void testLazyICFG() {
+        for (String inputClass : CASES) {
+            test(inputClass,
+                    "edge-refine:false;alias-aware:false;lazy-icfg:true");
+        }
+    }
 }
@@ -27,8 +27,16 @@ import pascal.taie.analysis.Tests;
 
 public class CHATest {
     
+    private static final String[] CASES = {
+            "StaticCall", "VirtualCall", "Interface", "AbstractMethod"
+    };
+
     protected static void test(String main) {
-        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
+        test(main, "src/test/resources/cha/", "algorithm:cha");
+    }
+
+    protected static void test(String main, String classPath, String options) {
+        Tests.test(main, classPath, "cg", options);
     }
 
     @Test
@@ -50,4 +58,38 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    /**
+     * RTA resolves the calls in StaticCall and AbstractMethod as CHA does,
+     * but only dispatches the calls in VirtualCall and Interface on the
+     * instantiated classes.
+     */
+    @Test
+    public void testRTA() {
+        test("StaticCall", "src/test/resources/cha/", "algorithm:rta");
+        test("AbstractMethod", "src/test/resources/cha/", "algorithm:rta");
+        test("VirtualCall", "src/test/resources/rta/", "algorithm:rta");
+        test("Interface", "src/test/resources/rta/", "algorithm:rta");
+    }
+
+    /**
+     * Call graphs built in parallel must be the same as the expected ones.
+     */
+    @Test
+    public void testParallel() {
+        for (String main : CASES) {
+            test(main, "src/test/resources/cha/", "algorithm:cha;parallelism:4");
+        }
+    }
+
+    /**
+     * Frozen call graphs must give the same results as the expected ones.
+     */
+    @Test
+    public void testFreeze() {
+        for (String main : CASES) {
+            test(main, "src/test/resources/cha/", "algorithm:cha;freeze:true");
+        }
+        test("VirtualCall", "src/test/resources/rta/", "algorithm:rta;freeze:true");
+    }
 }